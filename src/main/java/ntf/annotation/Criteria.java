@@ -15,6 +15,7 @@ import java.lang.annotation.*;
  *  @Criteria.Like
  *  private String custNameLike;
  *  实际取值会去掉 "Like"，即 custNameLike -> custName；
+ *  StartsWith/EndsWith 同理，但对应的都是criteria中的 Like 方法，即 custNameStartsWith -> andCustNameLike
  */
 @Target({ElementType.FIELD,ElementType.ANNOTATION_TYPE})
 @Retention(RetentionPolicy.RUNTIME)
@@ -24,15 +25,63 @@ public @interface Criteria {
 
     String value() default "";
 
+    /**
+     * 两端模糊匹配 %value%，以%开头的匹配无法使用索引
+     */
     @Criteria
     @Retention(RetentionPolicy.RUNTIME)
     @interface Like {
         @AliasFor(annotation = Criteria.class, attribute = "value")
         String value() default "";
+
+        /**
+         * 转义值中的 % _ \，按普通字符匹配
+         */
+        boolean escape() default false;
+
+        /**
+         * 字段上有索引时设为true，降级为前缀匹配 value%，可以使用索引
+         */
+        boolean indexed() default false;
+    }
+
+    /**
+     * 前缀匹配 value%，可以使用索引，对应criteria中的 andXxxLike 方法
+     * 例：
+     *  @Criteria.StartsWith
+     *  private String custNameStartsWith;   -> andCustNameLike(custNameStartsWith + "%")
+     */
+    @Criteria
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface StartsWith {
+        @AliasFor(annotation = Criteria.class, attribute = "value")
+        String value() default "";
+
+        /**
+         * 转义值中的 % _ \，按普通字符匹配
+         */
+        boolean escape() default false;
+    }
+
+    /**
+     * 后缀匹配 %value，对应criteria中的 andXxxLike 方法
+     */
+    @Criteria
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface EndsWith {
+        @AliasFor(annotation = Criteria.class, attribute = "value")
+        String value() default "";
+
+        /**
+         * 转义值中的 % _ \，按普通字符匹配
+         */
+        boolean escape() default false;
     }
 
     /**
      * 必须标注List
+     * 列表为空时不会访问数据库，直接返回空结果（需通过Query2Criteria.select查询）；
+     * 只做convert时写入恒假条件 1 = 0（需要criteria有 addCriterion(String)）
      */
     @Criteria
     @Retention(RetentionPolicy.RUNTIME)
@@ -40,16 +89,41 @@ public @interface Criteria {
         @AliasFor(annotation = Criteria.class, attribute = "value")
         String value() default "";
 
+        /**
+         * 单个IN最多包含的元素个数，超过后按split拆分，<=0 不拆分
+         */
+        int batchSize() default 0;
+
+        /**
+         * 超过batchSize时的拆分方式
+         */
+        Split split() default Split.OR;
+
+        /**
+         * 是否去除重复元素
+         */
+        boolean distinct() default true;
     }
 
     /**
      * 必须标注List
+     * 列表为空时忽略该条件
      */
     @Criteria
     @Retention(RetentionPolicy.RUNTIME)
     @interface NotIn {
         @AliasFor(annotation = Criteria.class, attribute = "value")
         String value() default "";
+
+        /**
+         * 单个NOT IN最多包含的元素个数，超过后拆成多个AND连接的NOT IN，<=0 不拆分
+         */
+        int batchSize() default 0;
+
+        /**
+         * 是否去除重复元素
+         */
+        boolean distinct() default true;
     }
 
     @Criteria
@@ -101,6 +175,55 @@ public @interface Criteria {
         String value() default "";
     }
 
+    /**
+     * json列包含标注的值 JSON_CONTAINS(column, value)，值为集合时需包含全部元素
+     * 不对应criteria中的方法，通过 addCriterion(String) 添加条件
+     * 例：
+     *  @Criteria.JsonContains
+     *  private List<String> tagsJsonContains;   -> JSON_CONTAINS(tags, CAST('["a","b"]' AS JSON))
+     */
+    @Criteria
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface JsonContains {
+        @AliasFor(annotation = Criteria.class, attribute = "value")
+        String value() default "";
+
+        /**
+         * 数据库列名（或 col->'$.path' 这样的表达式），原样写入sql，默认为字段名的下划线形式
+         */
+        String column() default "";
+    }
+
+    /**
+     * json数组列与标注的集合至少有一个相同元素 JSON_OVERLAPS(column, value)
+     */
+    @Criteria
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface JsonOverlaps {
+        @AliasFor(annotation = Criteria.class, attribute = "value")
+        String value() default "";
+
+        /**
+         * 数据库列名（或 col->'$.path' 这样的表达式），原样写入sql，默认为字段名的下划线形式
+         */
+        String column() default "";
+    }
+
+    /**
+     * 标注的单个值是json数组列的元素 value MEMBER OF(column)
+     */
+    @Criteria
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface MemberOf {
+        @AliasFor(annotation = Criteria.class, attribute = "value")
+        String value() default "";
+
+        /**
+         * 数据库列名（或 col->'$.path' 这样的表达式），原样写入sql，默认为字段名的下划线形式
+         */
+        String column() default "";
+    }
+
     /**
      * 不做example的转换
      */
@@ -111,4 +234,21 @@ public @interface Criteria {
         String value() default "";
     }
 
+    /**
+     * IN列表过大时的拆分方式
+     */
+    enum Split {
+        /**
+         * 拆成多组 IN，每组复制其余条件后用 OR 连接，仍是一次查询
+         */
+        OR,
+        /**
+         * 拆成多次查询，结果按顺序拼接，只用于Query2Criteria.select
+         * 拆分前总是去重，各次查询的IN互不相交，同一行不会重复出现
+         * 排序、分页和distinct无法跨多次查询生效：Example设置了orderByClause、distinct、limit/offset时抛出IllegalArgumentException，
+         * 需要时改用OR，或在内存中排序
+         */
+        QUERY
+    }
+
 }
@@ -0,0 +1,21 @@
+package ntf.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标注Query类，编译期由toolbox-processor生成 Query -> Criteria 的转换类
+ * value = mybatis自动生成的Criteria类
+ * 例：
+ *  @CriteriaConverter(CustExample.Criteria.class)
+ *  public class CustQuery {...}
+ * 会在同一个包下生成 CustQuery2Criteria，规则与{@link ntf.mybatis.Query2Criteria Query2Criteria}一致，
+ * 但直接调用Criteria的方法，不走反射；找不到对应的Criteria方法时编译报错
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.SOURCE)
+@Documented
+public @interface CriteriaConverter {
+
+    Class<?> value();
+
+}
@@ -0,0 +1,111 @@
+package ntf.core;
+
+import ntf.annotation.Criteria;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 类的反射元数据：全部字段（包括父类的）、属性描述和字段上合并后的 @Criteria
+ * 按类缓存在ClassValue中，线程安全，首次解析后查找为O(1)
+ * 元数据挂在类自身上，类卸载时一起回收，重新部署不会泄漏classloader
+ */
+public final class ClassMetadata {
+
+    private static final ClassValue<ClassMetadata> METADATA = new ClassValue<ClassMetadata>() {
+        @Override
+        protected ClassMetadata computeValue(Class<?> type) {
+            return new ClassMetadata(type);
+        }
+    };
+
+    private final Class<?> type;
+    // 子类在前，父类在后，与 getDeclaredFields 逐层拼接的顺序一致
+    private final List<Field> fields;
+    // 同名字段取子类的
+    private final Map<String, Field> fieldsByName;
+    private final PropertyDescriptor[] properties;
+    private final Map<String, PropertyDescriptor> propertiesByName;
+    // 用到时才解析
+    private volatile Map<String, Criteria> criteria;
+
+    private ClassMetadata(Class<?> type) {
+        this.type = type;
+        List<Field> fs = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass())
+            Collections.addAll(fs, c.getDeclaredFields());
+        Map<String, Field> byName = new HashMap<>();
+        for (Field f : fs)
+            byName.putIfAbsent(f.getName(), f);
+        this.fields = Collections.unmodifiableList(fs);
+        this.fieldsByName = byName;
+        this.properties = BeanUtils.getPropertyDescriptors(type);
+        Map<String, PropertyDescriptor> pds = new HashMap<>();
+        for (PropertyDescriptor pd : properties)
+            pds.put(pd.getName(), pd);
+        this.propertiesByName = pds;
+    }
+
+    public static ClassMetadata of(Class<?> type) {
+        return METADATA.get(type);
+    }
+
+    public Class<?> type() {
+        return type;
+    }
+
+    /**
+     * 全部字段，包括父类的，不可修改
+     */
+    public List<Field> fields() {
+        return fields;
+    }
+
+    /**
+     * 按名称查找字段，包括父类的，子类字段优先
+     */
+    public Field field(String name) {
+        return fieldsByName.get(name);
+    }
+
+    /**
+     * 与 BeanUtils.getPropertyDescriptors 相同，返回的数组不要修改
+     */
+    public PropertyDescriptor[] properties() {
+        return properties;
+    }
+
+    public PropertyDescriptor property(String name) {
+        return propertiesByName.get(name);
+    }
+
+    /**
+     * 字段上合并后的 @Criteria（由 @Criteria.Like 等组合注解得到），没有标注返回null
+     */
+    public Criteria criteria(String fieldName) {
+        Map<String, Criteria> map = criteria;
+        if (map == null) {
+            map = new HashMap<>();
+            for (Field f : fields) {
+                if (map.containsKey(f.getName()))
+                    continue;
+                map.put(f.getName(), AnnotatedElementUtils.findMergedAnnotation(
+                        AnnotatedElementUtils.forAnnotations(f.getAnnotations()), Criteria.class));
+            }
+            criteria = map;
+        }
+        return map.get(fieldName);
+    }
+
+    @Override
+    public String toString() {
+        return "ClassMetadata(" + type.getName() + ")";
+    }
+}
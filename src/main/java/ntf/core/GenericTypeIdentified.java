@@ -1,14 +1,11 @@
 package ntf.core;
 
 
-import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.lang.reflect.TypeVariable;
-import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * interface版本的TypeToken
+ * 解析结果按具体类缓存，同一个类只解析一次
  * @param <T>
  */
 public interface GenericTypeIdentified<T> {
@@ -18,41 +15,18 @@ public interface GenericTypeIdentified<T> {
         return getType(getClass());
     }
 
+    /**
+     * 通过整条继承链按位置和名称代入类型变量，解析出clazz上T的实际类型
+     */
     default Type getType(Class<?> clazz) {
-
-        Type[] interfaces = clazz.getGenericInterfaces();
-        Optional<Type> opInterfaces = Arrays.stream(interfaces)
-                .filter(i -> i instanceof ParameterizedType &&
-                        ((ParameterizedType) i).getRawType().equals(GenericTypeIdentified.class))
-                .findAny();
-        Class<?> superClazz = clazz.getSuperclass();
-        if (!opInterfaces.isPresent()) {
-            if (superClazz == Object.class)
-                return null;
-            Type tmpT = getType(superClazz);
-            if (tmpT == null || tmpT instanceof TypeVariable) { //泛型继承被擦除
-                if (clazz.getGenericSuperclass() instanceof ParameterizedType)
-                    // 直接拿取最近父类泛型，这里有坑，因为没有判断继承关系中，如果有多个泛型参数，所要识别的泛型参数的位置
-                    // 这里直接用了下标0的具体类型
-                    return ((ParameterizedType) clazz.getGenericSuperclass()).getActualTypeArguments()[0];
-                return null;
-            }
-            return tmpT;
-        }
-        return ((ParameterizedType) opInterfaces.get()).getActualTypeArguments()[0];
+        return GenericTypes.type(clazz);
     }
 
+    /**
+     * T的原始类型，继承链中没有给出具体类型时返回null
+     */
     @SuppressWarnings("unchecked")
     default Class<T> getGenericTypeClass() {
-        Type genericType = getType();
-        if (genericType == null)
-            return null;
-        if (genericType instanceof ParameterizedType) {
-            ParameterizedType pt = (ParameterizedType) genericType;
-            return (Class<T>) pt.getRawType();
-        } else {
-            return (Class<T>) genericType;
-        }
-
+        return (Class<T>) GenericTypes.rawType(getClass());
     }
 }
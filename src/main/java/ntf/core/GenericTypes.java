@@ -0,0 +1,65 @@
+package ntf.core;
+
+import com.google.common.reflect.TypeToken;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.Optional;
+
+/**
+ * GenericTypeIdentified 的泛型解析，按具体类缓存在ClassValue中
+ * 通过整条继承链（父类与接口）按位置和名称代入类型变量，
+ * 如 class A&lt;X, Y&gt; implements GenericTypeIdentified&lt;Y&gt;，class B extends A&lt;String, Long&gt; 解析为Long
+ */
+final class GenericTypes {
+
+    private static final TypeVariable<?> TYPE_PARAMETER = GenericTypeIdentified.class.getTypeParameters()[0];
+
+    // ClassValue不能存null，未解析出的用Optional.empty()
+    private static final ClassValue<Optional<Type>> TYPES = new ClassValue<Optional<Type>>() {
+        @Override
+        protected Optional<Type> computeValue(Class<?> type) {
+            return Optional.ofNullable(resolve(type));
+        }
+    };
+
+    private static final ClassValue<Optional<Class<?>>> RAW_TYPES = new ClassValue<Optional<Class<?>>>() {
+        @Override
+        protected Optional<Class<?>> computeValue(Class<?> type) {
+            return Optional.ofNullable(rawType(type(type)));
+        }
+    };
+
+    private GenericTypes() {
+    }
+
+    /**
+     * @return clazz上GenericTypeIdentified的类型参数；未实现该接口或以原始类型实现时为null；
+     * 继承链中没有给出具体类型时为类型变量
+     */
+    static Type type(Class<?> clazz) {
+        return TYPES.get(clazz).orElse(null);
+    }
+
+    /**
+     * type(clazz)的原始类型，为类型变量时返回null
+     */
+    static Class<?> rawType(Class<?> clazz) {
+        return RAW_TYPES.get(clazz).orElse(null);
+    }
+
+    private static Type resolve(Class<?> clazz) {
+        if (!GenericTypeIdentified.class.isAssignableFrom(clazz))
+            return null;
+        Type type = TypeToken.of(clazz).resolveType(TYPE_PARAMETER).getType();
+        return TYPE_PARAMETER.equals(type) ? null : type;
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class || type instanceof ParameterizedType || type instanceof GenericArrayType)
+            return TypeToken.of(type).getRawType();
+        return null;
+    }
+}
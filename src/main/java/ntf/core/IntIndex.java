@@ -0,0 +1,117 @@
+package ntf.core;
+
+import java.util.Collection;
+import java.util.function.ToIntFunction;
+
+/**
+ * int为key的索引，开放寻址（线性探测），key不装箱
+ * 相比 HashMap&lt;Integer, T&gt; 每个条目省去 Integer 与 Node 两个对象
+ * 非线程安全，构建完成后只读可以多线程共享
+ * 除key类型与散列函数外与 {@link LongIndex} 逐行对应，修改时保持一致
+ */
+public final class IntIndex<T> extends PrimitiveIndex<T> {
+
+    private int[] keys;
+
+    public IntIndex() {
+        this(16);
+    }
+
+    public IntIndex(int expectedSize) {
+        super(expectedSize);
+        keys = new int[values.length];
+    }
+
+    /**
+     * 按key建立索引，key重复时后面的元素覆盖前面的
+     */
+    public static <T> IntIndex<T> of(Collection<T> items, ToIntFunction<? super T> keyExtractor) {
+        IntIndex<T> index = new IntIndex<>(items.size());
+        for (T item : items)
+            index.put(keyExtractor.applyAsInt(item), item);
+        return index;
+    }
+
+    public T get(int key) {
+        if (key == 0)
+            return zeroValue();
+        int i = slot(key);
+        return keys[i] == 0 ? null : value(i);
+    }
+
+    public T getOrDefault(int key, T defaultValue) {
+        T value = get(key);
+        return value != null || containsKey(key) ? value : defaultValue;
+    }
+
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZero : keys[slot(key)] != 0;
+    }
+
+    /**
+     * @return 原来的值
+     */
+    public T put(int key, T value) {
+        if (key == 0)
+            return putZero(value);
+        int i = slot(key);
+        if (keys[i] != 0)
+            return replace(i, value);
+        keys[i] = key;
+        return insert(i, value);
+    }
+
+    /**
+     * 遍历所有条目，顺序不确定
+     */
+    public void forEach(Entry<? super T> action) {
+        if (hasZero)
+            action.accept(0, zeroValue());
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0)
+                action.accept(keys[i], value(i));
+        }
+    }
+
+    @FunctionalInterface
+    public interface Entry<T> {
+        void accept(int key, T value);
+    }
+
+    /**
+     * key所在的槽，不存在时为探测到的第一个空槽
+     */
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != key && keys[i] != 0)
+            i = (i + 1) & mask;
+        return i;
+    }
+
+    @Override
+    void rehash(Object[] oldValues) {
+        int[] oldKeys = keys;
+        keys = new int[values.length];
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = slot(oldKeys[j]);
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        // 黄金分割乘法散列，连续的id也能均匀分布
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> sb.append(sb.length() > 1 ? ", " : "").append(k).append('=').append(v));
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,116 @@
+package ntf.core;
+
+import java.util.Collection;
+import java.util.function.ToLongFunction;
+
+/**
+ * long为key的索引，开放寻址（线性探测），key不装箱
+ * 相比 HashMap&lt;Long, T&gt; 每个条目省去 Long 与 Node 两个对象
+ * 非线程安全，构建完成后只读可以多线程共享
+ */
+public final class LongIndex<T> extends PrimitiveIndex<T> {
+
+    private long[] keys;
+
+    public LongIndex() {
+        this(16);
+    }
+
+    public LongIndex(int expectedSize) {
+        super(expectedSize);
+        keys = new long[values.length];
+    }
+
+    /**
+     * 按key建立索引，key重复时后面的元素覆盖前面的
+     */
+    public static <T> LongIndex<T> of(Collection<T> items, ToLongFunction<? super T> keyExtractor) {
+        LongIndex<T> index = new LongIndex<>(items.size());
+        for (T item : items)
+            index.put(keyExtractor.applyAsLong(item), item);
+        return index;
+    }
+
+    public T get(long key) {
+        if (key == 0)
+            return zeroValue();
+        int i = slot(key);
+        return keys[i] == 0 ? null : value(i);
+    }
+
+    public T getOrDefault(long key, T defaultValue) {
+        T value = get(key);
+        return value != null || containsKey(key) ? value : defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZero : keys[slot(key)] != 0;
+    }
+
+    /**
+     * @return 原来的值
+     */
+    public T put(long key, T value) {
+        if (key == 0)
+            return putZero(value);
+        int i = slot(key);
+        if (keys[i] != 0)
+            return replace(i, value);
+        keys[i] = key;
+        return insert(i, value);
+    }
+
+    /**
+     * 遍历所有条目，顺序不确定
+     */
+    public void forEach(Entry<? super T> action) {
+        if (hasZero)
+            action.accept(0, zeroValue());
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0)
+                action.accept(keys[i], value(i));
+        }
+    }
+
+    @FunctionalInterface
+    public interface Entry<T> {
+        void accept(long key, T value);
+    }
+
+    /**
+     * key所在的槽，不存在时为探测到的第一个空槽
+     */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != key && keys[i] != 0)
+            i = (i + 1) & mask;
+        return i;
+    }
+
+    @Override
+    void rehash(Object[] oldValues) {
+        long[] oldKeys = keys;
+        keys = new long[values.length];
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = slot(oldKeys[j]);
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        // 黄金分割乘法散列，连续的id也能均匀分布
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> sb.append(sb.length() > 1 ? ", " : "").append(k).append('=').append(v));
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,126 @@
+package ntf.core;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.DoubleStream;
+
+/**
+ * double版本的OptionalStream，求和、最值、统计等不装箱
+ * 由 OptionalStream.mapToDouble 得到，或直接包装DoubleStream
+ * 为空时求和为0，最值为空的OptionalDouble，toArray为空数组
+ */
+public final class OptionalDoubleStream extends OptionalPrimitiveStream<DoubleStream, OptionalDoubleStream> {
+
+    private static final OptionalDoubleStream EMPTY = new OptionalDoubleStream(null, null);
+
+    private static final double[] EMPTY_ARRAY = new double[0];
+
+    private OptionalDoubleStream(DoubleStream value, ForkJoinPool pool) {
+        super(value, pool);
+    }
+
+    @Override
+    OptionalDoubleStream wrap(DoubleStream value, ForkJoinPool pool) {
+        return new OptionalDoubleStream(value, pool);
+    }
+
+    public static OptionalDoubleStream empty() {
+        return EMPTY;
+    }
+
+    public static OptionalDoubleStream of(DoubleStream value) {
+        return new OptionalDoubleStream(Objects.requireNonNull(value), null);
+    }
+
+    public static OptionalDoubleStream ofNullable(DoubleStream value) {
+        return value == null ? empty() : of(value);
+    }
+
+    public static OptionalDoubleStream of(double[] value) {
+        return of(DoubleStream.of(value));
+    }
+
+    public static OptionalDoubleStream ofNullable(double[] value) {
+        return value == null ? empty() : of(value);
+    }
+
+    static OptionalDoubleStream of(DoubleStream value, ForkJoinPool pool) {
+        return new OptionalDoubleStream(Objects.requireNonNull(value), pool);
+    }
+
+    public void ifPresent(DoubleConsumer consumer) {
+        if (value != null) {
+            terminal(() -> {
+                value.forEach(consumer);
+                return null;
+            });
+        }
+    }
+
+    public OptionalDoubleStream filter(DoublePredicate predicate) {
+        Objects.requireNonNull(predicate);
+        return value == null ? this : new OptionalDoubleStream(value.filter(predicate), pool);
+    }
+
+    public OptionalDoubleStream map(DoubleUnaryOperator mapper) {
+        Objects.requireNonNull(mapper);
+        return value == null ? this : new OptionalDoubleStream(value.map(mapper), pool);
+    }
+
+    public OptionalDoubleStream peek(DoubleConsumer consumer) {
+        Objects.requireNonNull(consumer);
+        return value == null ? this : new OptionalDoubleStream(value.peek(consumer), pool);
+    }
+
+    public <U> OptionalStream<U> mapToObj(DoubleFunction<? extends U> mapper) {
+        Objects.requireNonNull(mapper);
+        return value == null ? OptionalStream.empty() : OptionalStream.of(value.<U>mapToObj(mapper), pool);
+    }
+
+    public OptionalStream<Double> boxed() {
+        return value == null ? OptionalStream.empty() : OptionalStream.of(value.boxed(), pool);
+    }
+
+    public double sum() {
+        return value == null ? 0 : terminal(value::sum);
+    }
+
+    public OptionalDouble min() {
+        return value == null ? OptionalDouble.empty() : terminal(value::min);
+    }
+
+    public OptionalDouble max() {
+        return value == null ? OptionalDouble.empty() : terminal(value::max);
+    }
+
+    public OptionalDouble average() {
+        return value == null ? OptionalDouble.empty() : terminal(value::average);
+    }
+
+    public long count() {
+        return value == null ? 0 : terminal(value::count);
+    }
+
+    public DoubleSummaryStatistics summaryStatistics() {
+        return value == null ? new DoubleSummaryStatistics() : terminal(value::summaryStatistics);
+    }
+
+    public double[] toArray() {
+        return value == null ? EMPTY_ARRAY : terminal(value::toArray);
+    }
+
+    public OptionalDouble any() {
+        return value == null ? OptionalDouble.empty() : terminal(value::findAny);
+    }
+
+    public Optional<double[]> optionalArray() {
+        return value == null ? Optional.empty() : Optional.of(terminal(value::toArray));
+    }
+}
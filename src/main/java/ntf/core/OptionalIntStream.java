@@ -0,0 +1,127 @@
+package ntf.core;
+
+import java.util.IntSummaryStatistics;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * int版本的OptionalStream，求和、最值、统计等不装箱
+ * 由 OptionalStream.mapToInt 得到，或直接包装IntStream
+ * 为空时求和为0，最值为空的OptionalInt，toArray为空数组
+ */
+public final class OptionalIntStream extends OptionalPrimitiveStream<IntStream, OptionalIntStream> {
+
+    private static final OptionalIntStream EMPTY = new OptionalIntStream(null, null);
+
+    private static final int[] EMPTY_ARRAY = new int[0];
+
+    private OptionalIntStream(IntStream value, ForkJoinPool pool) {
+        super(value, pool);
+    }
+
+    @Override
+    OptionalIntStream wrap(IntStream value, ForkJoinPool pool) {
+        return new OptionalIntStream(value, pool);
+    }
+
+    public static OptionalIntStream empty() {
+        return EMPTY;
+    }
+
+    public static OptionalIntStream of(IntStream value) {
+        return new OptionalIntStream(Objects.requireNonNull(value), null);
+    }
+
+    public static OptionalIntStream ofNullable(IntStream value) {
+        return value == null ? empty() : of(value);
+    }
+
+    public static OptionalIntStream of(int[] value) {
+        return of(IntStream.of(value));
+    }
+
+    public static OptionalIntStream ofNullable(int[] value) {
+        return value == null ? empty() : of(value);
+    }
+
+    static OptionalIntStream of(IntStream value, ForkJoinPool pool) {
+        return new OptionalIntStream(Objects.requireNonNull(value), pool);
+    }
+
+    public void ifPresent(IntConsumer consumer) {
+        if (value != null) {
+            terminal(() -> {
+                value.forEach(consumer);
+                return null;
+            });
+        }
+    }
+
+    public OptionalIntStream filter(IntPredicate predicate) {
+        Objects.requireNonNull(predicate);
+        return value == null ? this : new OptionalIntStream(value.filter(predicate), pool);
+    }
+
+    public OptionalIntStream map(IntUnaryOperator mapper) {
+        Objects.requireNonNull(mapper);
+        return value == null ? this : new OptionalIntStream(value.map(mapper), pool);
+    }
+
+    public OptionalIntStream peek(IntConsumer consumer) {
+        Objects.requireNonNull(consumer);
+        return value == null ? this : new OptionalIntStream(value.peek(consumer), pool);
+    }
+
+    public <U> OptionalStream<U> mapToObj(IntFunction<? extends U> mapper) {
+        Objects.requireNonNull(mapper);
+        return value == null ? OptionalStream.empty() : OptionalStream.of(value.<U>mapToObj(mapper), pool);
+    }
+
+    public OptionalStream<Integer> boxed() {
+        return value == null ? OptionalStream.empty() : OptionalStream.of(value.boxed(), pool);
+    }
+
+    public int sum() {
+        return value == null ? 0 : terminal(value::sum);
+    }
+
+    public OptionalInt min() {
+        return value == null ? OptionalInt.empty() : terminal(value::min);
+    }
+
+    public OptionalInt max() {
+        return value == null ? OptionalInt.empty() : terminal(value::max);
+    }
+
+    public OptionalDouble average() {
+        return value == null ? OptionalDouble.empty() : terminal(value::average);
+    }
+
+    public long count() {
+        return value == null ? 0 : terminal(value::count);
+    }
+
+    public IntSummaryStatistics summaryStatistics() {
+        return value == null ? new IntSummaryStatistics() : terminal(value::summaryStatistics);
+    }
+
+    public int[] toArray() {
+        return value == null ? EMPTY_ARRAY : terminal(value::toArray);
+    }
+
+    public OptionalInt any() {
+        return value == null ? OptionalInt.empty() : terminal(value::findAny);
+    }
+
+    public Optional<int[]> optionalArray() {
+        return value == null ? Optional.empty() : Optional.of(terminal(value::toArray));
+    }
+}
@@ -0,0 +1,127 @@
+package ntf.core;
+
+import java.util.LongSummaryStatistics;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+
+/**
+ * long版本的OptionalStream，求和、最值、统计等不装箱
+ * 由 OptionalStream.mapToLong 得到，或直接包装LongStream
+ * 为空时求和为0，最值为空的OptionalLong，toArray为空数组
+ */
+public final class OptionalLongStream extends OptionalPrimitiveStream<LongStream, OptionalLongStream> {
+
+    private static final OptionalLongStream EMPTY = new OptionalLongStream(null, null);
+
+    private static final long[] EMPTY_ARRAY = new long[0];
+
+    private OptionalLongStream(LongStream value, ForkJoinPool pool) {
+        super(value, pool);
+    }
+
+    @Override
+    OptionalLongStream wrap(LongStream value, ForkJoinPool pool) {
+        return new OptionalLongStream(value, pool);
+    }
+
+    public static OptionalLongStream empty() {
+        return EMPTY;
+    }
+
+    public static OptionalLongStream of(LongStream value) {
+        return new OptionalLongStream(Objects.requireNonNull(value), null);
+    }
+
+    public static OptionalLongStream ofNullable(LongStream value) {
+        return value == null ? empty() : of(value);
+    }
+
+    public static OptionalLongStream of(long[] value) {
+        return of(LongStream.of(value));
+    }
+
+    public static OptionalLongStream ofNullable(long[] value) {
+        return value == null ? empty() : of(value);
+    }
+
+    static OptionalLongStream of(LongStream value, ForkJoinPool pool) {
+        return new OptionalLongStream(Objects.requireNonNull(value), pool);
+    }
+
+    public void ifPresent(LongConsumer consumer) {
+        if (value != null) {
+            terminal(() -> {
+                value.forEach(consumer);
+                return null;
+            });
+        }
+    }
+
+    public OptionalLongStream filter(LongPredicate predicate) {
+        Objects.requireNonNull(predicate);
+        return value == null ? this : new OptionalLongStream(value.filter(predicate), pool);
+    }
+
+    public OptionalLongStream map(LongUnaryOperator mapper) {
+        Objects.requireNonNull(mapper);
+        return value == null ? this : new OptionalLongStream(value.map(mapper), pool);
+    }
+
+    public OptionalLongStream peek(LongConsumer consumer) {
+        Objects.requireNonNull(consumer);
+        return value == null ? this : new OptionalLongStream(value.peek(consumer), pool);
+    }
+
+    public <U> OptionalStream<U> mapToObj(LongFunction<? extends U> mapper) {
+        Objects.requireNonNull(mapper);
+        return value == null ? OptionalStream.empty() : OptionalStream.of(value.<U>mapToObj(mapper), pool);
+    }
+
+    public OptionalStream<Long> boxed() {
+        return value == null ? OptionalStream.empty() : OptionalStream.of(value.boxed(), pool);
+    }
+
+    public long sum() {
+        return value == null ? 0 : terminal(value::sum);
+    }
+
+    public OptionalLong min() {
+        return value == null ? OptionalLong.empty() : terminal(value::min);
+    }
+
+    public OptionalLong max() {
+        return value == null ? OptionalLong.empty() : terminal(value::max);
+    }
+
+    public OptionalDouble average() {
+        return value == null ? OptionalDouble.empty() : terminal(value::average);
+    }
+
+    public long count() {
+        return value == null ? 0 : terminal(value::count);
+    }
+
+    public LongSummaryStatistics summaryStatistics() {
+        return value == null ? new LongSummaryStatistics() : terminal(value::summaryStatistics);
+    }
+
+    public long[] toArray() {
+        return value == null ? EMPTY_ARRAY : terminal(value::toArray);
+    }
+
+    public OptionalLong any() {
+        return value == null ? OptionalLong.empty() : terminal(value::findAny);
+    }
+
+    public Optional<long[]> optionalArray() {
+        return value == null ? Optional.empty() : Optional.of(terminal(value::toArray));
+    }
+}
@@ -0,0 +1,122 @@
+package ntf.core;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.BaseStream;
+
+/**
+ * {@link OptionalIntStream}、{@link OptionalLongStream}、{@link OptionalDoubleStream} 共用的部分：
+ * 取值、并行方式与线程池的传递、终结操作的执行，与 {@link OptionalStream} 保持一致
+ *
+ * @param <S> 包装的基本类型流
+ * @param <O> 子类自身
+ */
+abstract class OptionalPrimitiveStream<S extends BaseStream<?, S>, O extends OptionalPrimitiveStream<S, O>> {
+
+    final S value;
+
+    // 不为null时终结操作在该线程池中执行，见 OptionalStream.parallel(ForkJoinPool)
+    final ForkJoinPool pool;
+
+    OptionalPrimitiveStream(S value, ForkJoinPool pool) {
+        this.value = value;
+        this.pool = pool;
+    }
+
+    /**
+     * 用同一个线程池包装新的流
+     */
+    abstract O wrap(S value, ForkJoinPool pool);
+
+    public S get() {
+        if (value == null) {
+            throw new NoSuchElementException("No value present");
+        }
+        return value;
+    }
+
+    public boolean isPresent() {
+        return value != null;
+    }
+
+    /**
+     * 见 {@link OptionalStream#parallel()}
+     */
+    public O parallel() {
+        return value == null ? self() : wrap(value.parallel(), pool);
+    }
+
+    /**
+     * 见 {@link OptionalStream#parallel(ForkJoinPool)}
+     */
+    public O parallel(ForkJoinPool pool) {
+        Objects.requireNonNull(pool);
+        return value == null ? self() : wrap(value.parallel(), pool);
+    }
+
+    /**
+     * 保留已指定的线程池，之后再parallel()时仍在该线程池中执行
+     */
+    public O sequential() {
+        return value == null ? self() : wrap(value.sequential(), pool);
+    }
+
+    public O unordered() {
+        return value == null ? self() : wrap(value.unordered(), pool);
+    }
+
+    public boolean isParallel() {
+        return value != null && value.isParallel();
+    }
+
+    public S orElse(S other) {
+        return value != null ? value : other;
+    }
+
+    public S orElseGet(Supplier<? extends S> other) {
+        return value != null ? value : other.get();
+    }
+
+    public <X extends Throwable> S orElseThrow(Supplier<? extends X> exceptionSupplier) throws X {
+        if (value != null) {
+            return value;
+        } else {
+            throw exceptionSupplier.get();
+        }
+    }
+
+    final <R> R terminal(Supplier<R> operation) {
+        return OptionalStream.terminal(pool, value, operation);
+    }
+
+    @SuppressWarnings("unchecked")
+    private O self() {
+        return (O) this;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        return Objects.equals(value, ((OptionalPrimitiveStream<?, ?>) obj).value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        String name = getClass().getSimpleName();
+        return value != null
+                ? String.format("%s[%s]", name, value)
+                : name + ".empty";
+    }
+}
@@ -2,15 +2,24 @@
 package ntf.core;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.BaseStream;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Optional + Stream 针对返回结果是列表的情况
+ * 并行时可通过 parallel(ForkJoinPool) 指定执行终结操作的线程池，避免占满公共线程池
  *
  */
 public class OptionalStream<T> {
@@ -20,9 +29,13 @@ public class OptionalStream<T> {
 
     private final Stream<T> value;
 
+    // 不为null时终结操作在该线程池中执行
+    private final ForkJoinPool pool;
+
 
     private OptionalStream() {
         this.value = null;
+        this.pool = null;
     }
 
 
@@ -34,10 +47,18 @@ public class OptionalStream<T> {
 
 
     private OptionalStream(Stream<T> value) {
+        this(value, (ForkJoinPool) null);
+    }
+    private OptionalStream(Stream<T> value, ForkJoinPool pool) {
         this.value = Objects.requireNonNull(value);
+        this.pool = pool;
+    }
+    static <T> OptionalStream<T> of(Stream<T> value, ForkJoinPool pool) {
+        return new OptionalStream<>(value, pool);
     }
     private <U> OptionalStream(U value, Function<U, Stream<T>> streamAdapter) {
         this.value = streamAdapter.apply(Objects.requireNonNull(value));
+        this.pool = null;
     }
 
 
@@ -74,8 +95,44 @@ public class OptionalStream<T> {
         return value;
     }
 
+    /**
+     * 并行执行，终结操作由调用线程发起，并行的子任务在ForkJoinPool.commonPool()中执行
+     * 之前已通过{@link #parallel(ForkJoinPool)}指定线程池时，仍在该线程池中执行
+     */
+    public OptionalStream<T> parallel() {
+        return value == null ? this : new OptionalStream<>(value.parallel(), pool);
+    }
+
+    /**
+     * 并行执行，终结操作（collection、optionalList、ifPresent等）在pool中执行，
+     * 并行的子任务也在pool中，不占用公共线程池；get()返回的Stream不受pool影响
+     */
+    public OptionalStream<T> parallel(ForkJoinPool pool) {
+        Objects.requireNonNull(pool);
+        return value == null ? this : new OptionalStream<>(value.parallel(), pool);
+    }
+
+    /**
+     * 保留已指定的线程池，之后再parallel()时仍在该线程池中执行
+     */
+    public OptionalStream<T> sequential() {
+        return value == null ? this : new OptionalStream<>(value.sequential(), pool);
+    }
+
+    /**
+     * 不要求保持顺序，并行时distinct、limit等操作更快
+     */
+    public OptionalStream<T> unordered() {
+        return value == null ? this : new OptionalStream<>(value.unordered(), pool);
+    }
+
+    public boolean isParallel() {
+        return value != null && value.isParallel();
+    }
+
     public <C extends Collection<T>> C collection(Supplier<C> suppier) {
-        return get().collect(Collectors.toCollection(suppier));
+        Stream<T> stream = get();
+        return terminal(() -> stream.collect(Collectors.toCollection(suppier)));
     }
 
 
@@ -83,7 +140,7 @@ public class OptionalStream<T> {
         if (value == null) {
             return Optional.empty();
         }
-        return Optional.of(get().collect(Collectors.toCollection(suppier)));
+        return Optional.of(terminal(() -> value.collect(Collectors.toCollection(suppier))));
     }
 
 
@@ -94,8 +151,12 @@ public class OptionalStream<T> {
 
 
     public void ifPresent(Consumer<? super T> consumer) {
-        if (value != null)
-            value.forEach(consumer);
+        if (value != null) {
+            terminal(() -> {
+                value.forEach(consumer);
+                return null;
+            });
+        }
     }
 
 
@@ -104,7 +165,7 @@ public class OptionalStream<T> {
         if (!isPresent())
             return this;
         else {
-            return of(value.filter(predicate));
+            return new OptionalStream<>(value.filter(predicate), pool);
         }
     }
 
@@ -114,16 +175,34 @@ public class OptionalStream<T> {
         if (!isPresent())
             return empty();
         else {
-            return ofNullable(value.map(mapper));
+            return new OptionalStream<>(value.map(mapper), pool);
         }
     }
 
+    /**
+     * 转为基本类型的流，后续的求和、最值等不装箱
+     */
+    public OptionalIntStream mapToInt(ToIntFunction<? super T> mapper) {
+        Objects.requireNonNull(mapper);
+        return value == null ? OptionalIntStream.empty() : OptionalIntStream.of(value.mapToInt(mapper), pool);
+    }
+
+    public OptionalLongStream mapToLong(ToLongFunction<? super T> mapper) {
+        Objects.requireNonNull(mapper);
+        return value == null ? OptionalLongStream.empty() : OptionalLongStream.of(value.mapToLong(mapper), pool);
+    }
+
+    public OptionalDoubleStream mapToDouble(ToDoubleFunction<? super T> mapper) {
+        Objects.requireNonNull(mapper);
+        return value == null ? OptionalDoubleStream.empty() : OptionalDoubleStream.of(value.mapToDouble(mapper), pool);
+    }
+
     public OptionalStream<T> peek(Consumer<? super T> consumer) {
         Objects.requireNonNull(consumer);
         if (!isPresent())
             return empty();
         else {
-            return of(value.peek(consumer));
+            return new OptionalStream<>(value.peek(consumer), pool);
         }
     }
 
@@ -133,7 +212,7 @@ public class OptionalStream<T> {
         if (!isPresent())
             return empty();
         else {
-            return Objects.requireNonNull(of(value.flatMap(mapper)));
+            return new OptionalStream<>(value.flatMap(mapper), pool);
         }
     }
 
@@ -144,11 +223,35 @@ public class OptionalStream<T> {
     }
 
     public <C extends Collection<T>> C orOtherCollection(C other, Supplier<? extends C> suppier) {
-        return value == null ? other : value.collect(Collectors.toCollection(suppier));
+        return value == null ? other : terminal(() -> value.collect(Collectors.toCollection(suppier)));
     }
 
     public Optional<T> any() {
-        return value == null ? Optional.empty() : value.findAny();
+        return value == null ? Optional.empty() : terminal(value::findAny);
+    }
+
+    private <R> R terminal(Supplier<R> operation) {
+        return terminal(pool, value, operation);
+    }
+
+    /**
+     * 指定了pool且为并行时在pool中执行，已在pool中时直接执行
+     */
+    static <R> R terminal(ForkJoinPool pool, BaseStream<?, ?> stream, Supplier<R> operation) {
+        if (pool == null || !stream.isParallel() || ForkJoinTask.getPool() == pool)
+            return operation.get();
+        try {
+            return pool.submit(operation::get).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("等待并行执行时被中断");
+        }
     }
 
 
@@ -0,0 +1,81 @@
+package ntf.core;
+
+/**
+ * {@link LongIndex}、{@link IntIndex} 共用的部分：值数组、容量与扩容阈值、key为0的条目
+ * 子类只负责自己类型的key数组与线性探测，构造时按 values.length 分配key数组
+ */
+abstract class PrimitiveIndex<T> {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    Object[] values;
+    private int size;
+    private int resizeAt;
+
+    // 0作为空槽的标记，key为0的条目单独存放
+    boolean hasZero;
+    private Object zeroValue;
+
+    PrimitiveIndex(int expectedSize) {
+        long capacity = Math.max(4, (long) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR));
+        resize((int) Math.min(1 << 30, Long.highestOneBit(capacity - 1) << 1));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * values已按新容量分配，子类分配同样长度的key数组，并把旧的条目重新放入
+     */
+    abstract void rehash(Object[] oldValues);
+
+    @SuppressWarnings("unchecked")
+    final T zeroValue() {
+        return (T) zeroValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    final T putZero(T value) {
+        T old = (T) zeroValue;
+        if (!hasZero)
+            size++;
+        hasZero = true;
+        zeroValue = value;
+        return old;
+    }
+
+    @SuppressWarnings("unchecked")
+    final T value(int slot) {
+        return (T) values[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    final T replace(int slot, T value) {
+        T old = (T) values[slot];
+        values[slot] = value;
+        return old;
+    }
+
+    /**
+     * 子类已在空槽写入key后调用，写入值并在超过阈值时扩容
+     */
+    final T insert(int slot, T value) {
+        values[slot] = value;
+        if (++size > resizeAt) {
+            Object[] oldValues = values;
+            resize(oldValues.length << 1);
+            rehash(oldValues);
+        }
+        return null;
+    }
+
+    private void resize(int capacity) {
+        values = new Object[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+}
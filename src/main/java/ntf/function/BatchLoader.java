@@ -0,0 +1,228 @@
+package ntf.function;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 合并逐个key的查询，解决循环中逐条查库的N+1问题
+ * 一段时间窗口内（或攒够maxBatchSize个）的load请求合并成一次batchFunction调用，
+ * 完成后分别完成各自的CompletableFuture；同一个key只查一次，结果在loader内缓存
+ * loader按请求（或一次处理）创建，不要做成全局单例，缓存不会过期
+ * 例：
+ *  BatchLoader<Long, Cust> custLoader = new BatchLoader<>(ids -> BeanFunctions.identifyByKey(
+ *          custMapper.selectByIds(ids), Cust::getId), 500, 5, TimeUnit.MILLISECONDS, dbExecutor);
+ *  List<CompletableFuture<Cust>> futures = orders.stream().map(o -> custLoader.load(o.getCustId())).collect(toList());
+ *  custLoader.dispatch(); // 不等窗口结束，立即查询
+ * 未传入scheduler时，第一次需要计时时创建loader自己的计时线程，用完须调用{@link #close()}
+ */
+public class BatchLoader<K, V> implements AutoCloseable {
+
+    private final Function<? super List<K>, ? extends Map<K, V>> batchFunction;
+    private final int maxBatchSize;
+    private final long window;
+    private final TimeUnit unit;
+    private final Executor executor;
+
+    // 只负责计时，batchFunction在executor中执行；ownsScheduler为true时由close()关闭
+    private ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+
+    private final ConcurrentMap<K, CompletableFuture<V>> cache = new ConcurrentHashMap<>();
+
+    // 等待查询的key及其计时，访问时需持有this的锁
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> timer;
+    private boolean closed;
+
+    /**
+     * batchFunction在ForkJoinPool.commonPool()中执行，阻塞的数据库查询建议传入专用的executor
+     */
+    public BatchLoader(Function<? super List<K>, ? extends Map<K, V>> batchFunction, int maxBatchSize,
+                       long window, TimeUnit unit) {
+        this(batchFunction, maxBatchSize, window, unit, ForkJoinPool.commonPool(), null);
+    }
+
+    public BatchLoader(Function<? super List<K>, ? extends Map<K, V>> batchFunction, int maxBatchSize,
+                       long window, TimeUnit unit, Executor executor) {
+        this(batchFunction, maxBatchSize, window, unit, executor, null);
+    }
+
+    /**
+     * @param batchFunction 按一批key查询，返回key到值的映射，没有的key对应null
+     * @param maxBatchSize 一批最多的key个数，攒够后立即查询，<=0 不限
+     * @param window 第一个key加入后等待的时间，<=0 时只在攒够或调用dispatch时查询
+     * @param executor 执行batchFunction
+     * @param scheduler 计时用，由调用方管理生命周期，可以多个loader共用；为null时loader自己创建并在close时关闭
+     */
+    public BatchLoader(Function<? super List<K>, ? extends Map<K, V>> batchFunction, int maxBatchSize,
+                       long window, TimeUnit unit, Executor executor, ScheduledExecutorService scheduler) {
+        this.batchFunction = batchFunction;
+        this.maxBatchSize = maxBatchSize;
+        this.window = window;
+        this.unit = unit;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.ownsScheduler = scheduler == null;
+    }
+
+    /**
+     * key为null时直接返回null
+     */
+    public CompletableFuture<V> load(K key) {
+        if (key == null)
+            return CompletableFuture.completedFuture(null);
+        CompletableFuture<V> future = cache.get(key);
+        if (future != null)
+            return future;
+        Map<K, CompletableFuture<V>> batch = null;
+        synchronized (this) {
+            if (closed)
+                throw new IllegalStateException("BatchLoader已关闭");
+            future = cache.get(key);
+            if (future != null)
+                return future;
+            future = new CompletableFuture<>();
+            cache.put(key, future);
+            pending.put(key, future);
+            if (maxBatchSize > 0 && pending.size() >= maxBatchSize) {
+                batch = takePending();
+            } else if (pending.size() == 1 && window > 0) {
+                // 计时只针对这一批，之后攒够提前查询时取消
+                Map<K, CompletableFuture<V>> current = pending;
+                timer = scheduler().schedule(() -> dispatch(current), window, unit);
+            }
+        }
+        if (batch != null)
+            submit(batch);
+        return future;
+    }
+
+    /**
+     * 按keys的顺序返回结果
+     */
+    public CompletableFuture<List<V>> loadMany(Collection<? extends K> keys) {
+        List<CompletableFuture<V>> futures = new ArrayList<>(keys.size());
+        for (K key : keys)
+            futures.add(load(key));
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            List<V> ret = new ArrayList<>(futures.size());
+            for (CompletableFuture<V> f : futures)
+                ret.add(f.join());
+            return ret;
+        });
+    }
+
+    /**
+     * 立即查询所有等待中的key
+     */
+    public void dispatch() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (this) {
+            if (pending.isEmpty())
+                return;
+            batch = takePending();
+        }
+        submit(batch);
+    }
+
+    /**
+     * 立即查询等待中的key，并关闭loader自己创建的计时线程，之后不能再load
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService owned;
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+            owned = ownsScheduler ? scheduler : null;
+        }
+        dispatch();
+        if (owned != null)
+            owned.shutdownNow();
+    }
+
+    /**
+     * 清除缓存的结果，之后的load会重新查询
+     */
+    public void clear(K key) {
+        cache.remove(key);
+    }
+
+    public void clearAll() {
+        cache.clear();
+    }
+
+    /**
+     * 计时到期，只在batch仍在等待时查询，已经因为攒够或dispatch查询过的不再处理
+     */
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        synchronized (this) {
+            if (pending != batch || batch.isEmpty())
+                return;
+            takePending();
+        }
+        submit(batch);
+    }
+
+    private Map<K, CompletableFuture<V>> takePending() {
+        Map<K, CompletableFuture<V>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+        return batch;
+    }
+
+    private ScheduledExecutorService scheduler() {
+        if (scheduler == null)
+            scheduler = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("batch-loader-timer-%d").build());
+        return scheduler;
+    }
+
+    private void submit(Map<K, CompletableFuture<V>> batch) {
+        try {
+            executor.execute(() -> run(batch));
+        } catch (RuntimeException e) {
+            fail(batch, e);
+        }
+    }
+
+    private void run(Map<K, CompletableFuture<V>> batch) {
+        Map<K, V> values;
+        try {
+            values = batchFunction.apply(Collections.unmodifiableList(new ArrayList<>(batch.keySet())));
+        } catch (Throwable e) {
+            fail(batch, e);
+            return;
+        }
+        for (Map.Entry<K, CompletableFuture<V>> entry : batch.entrySet())
+            entry.getValue().complete(values == null ? null : values.get(entry.getKey()));
+    }
+
+    private void fail(Map<K, CompletableFuture<V>> batch, Throwable e) {
+        // 失败的结果不缓存，之后可以重试
+        for (Map.Entry<K, CompletableFuture<V>> entry : batch.entrySet()) {
+            cache.remove(entry.getKey(), entry.getValue());
+            entry.getValue().completeExceptionally(e);
+        }
+    }
+}
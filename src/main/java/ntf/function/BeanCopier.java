@@ -0,0 +1,137 @@
+package ntf.function;
+
+import ntf.core.ClassMetadata;
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 预先解析的属性拷贝，规则与 BeanUtils.copyProperties 一致：
+ * 目标的每个可写属性，若源有同名可读属性且类型可赋值，则拷贝（包括null）
+ * 每对(源类, 目标类)只解析一次，之后只执行绑定好的MethodHandle
+ */
+final class BeanCopier<S, T> {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    // (target, source) -> void，即 target.setXxx(source.getXxx())
+    private static final MethodType COPY_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    // 目标类 -> (源类 -> copier)，挂在目标类上，随类卸载
+    private static final ClassValue<ConcurrentMap<Class<?>, BeanCopier<?, ?>>> COPIERS =
+            new ClassValue<ConcurrentMap<Class<?>, BeanCopier<?, ?>>>() {
+                @Override
+                protected ConcurrentMap<Class<?>, BeanCopier<?, ?>> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private final Class<T> targetType;
+    private final MethodHandle constructor;
+    private final String[] properties;
+    private final MethodHandle[] copies;
+
+    private BeanCopier(Class<T> targetType, MethodHandle constructor, String[] properties, MethodHandle[] copies) {
+        this.targetType = targetType;
+        this.constructor = constructor;
+        this.properties = properties;
+        this.copies = copies;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <S, T> BeanCopier<S, T> of(Class<S> sourceType, Class<T> targetType) {
+        return (BeanCopier<S, T>) COPIERS.get(targetType).computeIfAbsent(sourceType, st -> build(st, targetType));
+    }
+
+    /**
+     * 创建目标对象并拷贝属性
+     */
+    T map(S source) {
+        return copy(source, newInstance());
+    }
+
+    T copy(S source, T target) {
+        if (source == null)
+            throw new IllegalArgumentException("source不能为null");
+        for (int i = 0; i < copies.length; i++) {
+            try {
+                copies[i].invokeExact((Object) target, (Object) source);
+            } catch (Throwable ex) {
+                throw new FatalBeanException("属性拷贝失败：" + properties[i], ex);
+            }
+        }
+        return target;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T newInstance() {
+        if (constructor == null)
+            throw new BeanInstantiationException(targetType, "没有无参构造方法");
+        try {
+            return (T) (Object) constructor.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BeanInstantiationException(targetType, "构造方法抛出异常", e);
+        }
+    }
+
+    private static <T> BeanCopier<?, T> build(Class<?> sourceType, Class<T> targetType) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<String> properties = new ArrayList<>();
+        List<MethodHandle> copies = new ArrayList<>();
+        ClassMetadata source = ClassMetadata.of(sourceType);
+        for (PropertyDescriptor targetPd : ClassMetadata.of(targetType).properties()) {
+            Method writeMethod = targetPd.getWriteMethod();
+            if (writeMethod == null)
+                continue;
+            PropertyDescriptor sourcePd = source.property(targetPd.getName());
+            if (sourcePd == null)
+                continue;
+            Method readMethod = sourcePd.getReadMethod();
+            if (readMethod == null || !ClassUtils.isAssignable(writeMethod.getParameterTypes()[0], readMethod.getReturnType()))
+                continue;
+            try {
+                MethodHandle setter = lookup.unreflect(accessible(writeMethod));
+                MethodHandle getter = lookup.unreflect(accessible(readMethod))
+                        .asType(MethodType.methodType(writeMethod.getParameterTypes()[0], readMethod.getDeclaringClass()));
+                // setter(target, getter(source))
+                copies.add(MethodHandles.filterArguments(setter, 1, getter).asType(COPY_TYPE));
+                properties.add(targetPd.getName());
+            } catch (IllegalAccessException e) {
+                throw new FatalBeanException("属性拷贝失败：" + targetPd.getName(), e);
+            }
+        }
+        return new BeanCopier<>(targetType, constructor(targetType),
+                properties.toArray(new String[0]), copies.toArray(new MethodHandle[0]));
+    }
+
+    private static MethodHandle constructor(Class<?> targetType) {
+        if (targetType.isInterface() || Modifier.isAbstract(targetType.getModifiers()))
+            return null;
+        try {
+            Constructor<?> ctor = targetType.getDeclaredConstructor();
+            return MethodHandles.lookup().unreflectConstructor(accessible(ctor)).asType(CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static <A extends AccessibleObject> A accessible(A member) {
+        if (!member.isAccessible())
+            member.setAccessible(true);
+        return member;
+    }
+}
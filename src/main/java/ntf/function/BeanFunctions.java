@@ -2,55 +2,152 @@ package ntf.function;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import ntf.core.ClassMetadata;
+import ntf.core.IntIndex;
+import ntf.core.LongIndex;
 import org.apache.commons.lang3.tuple.Pair;
-import org.springframework.beans.BeanUtils;
 
 import java.beans.BeanInfo;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 public class BeanFunctions {
 
+    /**
+     * 批量映射时，元素个数低于该值直接单线程执行
+     */
+    public static final int PARALLEL_THRESHOLD = 8192;
+
+    // 每个并行任务至少处理的元素个数
+    private static final int MIN_CHUNK = 1024;
+
+    /**
+     * 与 BeanUtils.copyProperties 规则一致的属性拷贝，按(源对象类型, targetType)缓存预先解析的拷贝器
+     */
+    @SuppressWarnings("unchecked")
     public static <S, T> Function<S, T> beanMap(Class<T> targetType) {
         return s -> {
-            T t = BeanUtils.instantiate(targetType);
-            BeanUtils.copyProperties(s, t);
-            return t;
+            if (s == null)
+                throw new IllegalArgumentException("source不能为null");
+            return BeanCopier.of((Class<S>) s.getClass(), targetType).map(s);
         };
     }
 
-    public static <T> Function<String, PropertyDescriptor> propertyDescriptorMapperOf(Class<T> targetType) {
-        return fd -> BeanUtils.getPropertyDescriptor(targetType, fd);
+    /**
+     * 拷贝器在创建时即解析好，只拷贝sourceType中的属性（忽略子类新增的属性）
+     */
+    public static <S, T> Function<S, T> beanMap(Class<S> sourceType, Class<T> targetType) {
+        return BeanCopier.of(sourceType, targetType)::map;
     }
 
+    /**
+     * 批量beanMap，见{@link #mapAll(List, Function, ForkJoinPool, int)}
+     */
+    public static <S, T> List<T> beanMapAll(List<S> sources, Class<T> targetType) {
+        return mapAll(sources, beanMap(targetType));
+    }
 
-    public static List<Field> getAllFields(Class clazz) {
-        List<Field> fs= Lists.newArrayList();
-        //循环截取所有父类属性
-        for (; clazz != Object.class; clazz=clazz.getSuperclass()) {
-            try {
-                fs.addAll(Lists.newArrayList(clazz.getDeclaredFields()));
-            } catch (Exception ignore) {
+    public static <S, T> List<T> mapAll(S[] sources, Function<? super S, ? extends T> mapper) {
+        return mapAll(sources == null ? null : Arrays.asList(sources), mapper);
+    }
+
+    public static <S, T> List<T> mapAll(List<S> sources, Function<? super S, ? extends T> mapper) {
+        return mapAll(sources, mapper, ForkJoinPool.commonPool(), PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * 按顺序映射整个列表，结果是预先分配好大小的ArrayList，直接返回不再复制，可以修改
+     * 元素个数不小于threshold时在pool中分块并行执行，结果顺序与输入一致
+     * mapper会被多个线程同时调用，须无状态
+     */
+    @SuppressWarnings("unchecked")
+    public static <S, T> List<T> mapAll(List<S> sources, Function<? super S, ? extends T> mapper,
+                                        ForkJoinPool pool, int threshold) {
+        if (sources == null)
+            return null;
+        Object[] in = sources instanceof RandomAccess ? null : sources.toArray();
+        int size = in == null ? sources.size() : in.length;
+        List<T> out = new ArrayList<>(size);
+        if (size < threshold || pool.getParallelism() <= 1) {
+            for (int i = 0; i < size; i++)
+                out.add(mapper.apply(in == null ? sources.get(i) : (S) in[i]));
+        } else {
+            // 先占位，各任务只set各自的下标区间
+            for (int i = 0; i < size; i++)
+                out.add(null);
+            int chunk = Math.max(MIN_CHUNK, size / (pool.getParallelism() * 4));
+            pool.invoke(new MapTask<>(sources, in, out, mapper, 0, size, chunk));
+        }
+        return out;
+    }
+
+    /**
+     * 按下标区间二分的映射任务，各自写入结果列表的对应位置
+     */
+    private static final class MapTask<S, T> extends RecursiveAction {
+
+        private final List<S> sources;
+        private final Object[] in;
+        private final List<T> out;
+        private final Function<? super S, ? extends T> mapper;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        private MapTask(List<S> sources, Object[] in, List<T> out, Function<? super S, ? extends T> mapper,
+                        int from, int to, int chunk) {
+            this.sources = sources;
+            this.in = in;
+            this.out = out;
+            this.mapper = mapper;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void compute() {
+            if (to - from <= chunk) {
+                for (int i = from; i < to; i++)
+                    out.set(i, mapper.apply(in == null ? sources.get(i) : (S) in[i]));
+                return;
             }
+            int mid = (from + to) >>> 1;
+            invokeAll(new MapTask<>(sources, in, out, mapper, from, mid, chunk),
+                    new MapTask<>(sources, in, out, mapper, mid, to, chunk));
         }
-        return fs;
+    }
+
+    public static <T> Function<String, PropertyDescriptor> propertyDescriptorMapperOf(Class<T> targetType) {
+        ClassMetadata metadata = ClassMetadata.of(targetType);
+        return metadata::property;
+    }
+
+
+    /**
+     * 全部字段，包括父类的，字段列表按类缓存在 ClassMetadata 中
+     * 返回的是副本，可以修改
+     */
+    public static List<Field> getAllFields(Class clazz) {
+        return Lists.newArrayList(ClassMetadata.of(clazz).fields());
     }
 
     public static Field getFieldRecursively(Class clazz, String fieldStr) {
-        //循环截取所有父类属性
-        for(; clazz != Object.class; clazz = clazz.getSuperclass()) {
-            try {
-                for (Field field : clazz.getDeclaredFields()) {
-                    if (field.getName().equals(fieldStr))
-                        return field;
-                }
-            } catch (Exception ignore) {}
-        }
-        return null;
+        return ClassMetadata.of(clazz).field(fieldStr);
     }
 
     public static <T> Map<Object, T> identifyByKey(Iterable<T> items, String key) {
@@ -60,7 +157,7 @@ public class BeanFunctions {
         Iterator<T> iter = items.iterator();
         if (!iter.hasNext())
             return new HashMap<>();
-        Class collectClass = iter.next().getClass();
+        Class<?> collectClass = iter.next().getClass();
         try {
             PropertyDescriptor keyPropertyDescriptor = Optional.of(collectClass)
                             .map(BeanFunctions::propertyDescriptorMapperOf)
@@ -89,4 +186,212 @@ public class BeanFunctions {
         return identifyByKey(Arrays.asList(items), key);
     }
 
+    /**
+     * 按keyExtractor建立索引，map按元素个数预先分配大小，key重复时后面的元素覆盖前面的
+     * 与按属性名的版本不同，异常直接抛出
+     */
+    public static <K, T> Map<K, T> identifyByKey(Collection<T> items, Function<? super T, ? extends K> keyExtractor) {
+        if (items == null)
+            return null;
+        Map<K, T> ret = Maps.newHashMapWithExpectedSize(items.size());
+        for (T item : items)
+            ret.put(keyExtractor.apply(item), item);
+        return ret;
+    }
+
+    /**
+     * long类型id的索引，key不装箱
+     */
+    public static <T> LongIndex<T> identifyByLongKey(Collection<T> items, ToLongFunction<? super T> keyExtractor) {
+        return items == null ? null : LongIndex.of(items, keyExtractor);
+    }
+
+    /**
+     * int类型id的索引，key不装箱
+     */
+    public static <T> IntIndex<T> identifyByIntKey(Collection<T> items, ToIntFunction<? super T> keyExtractor) {
+        return items == null ? null : IntIndex.of(items, keyExtractor);
+    }
+
+    /**
+     * 按属性名取值的key提取器，getter按元素的实际类型解析并缓存
+     */
+    public static <T> Function<T, Object> property(String name) {
+        return new PropertyGetter<>(name);
+    }
+
+    /**
+     * 按key分组，组内保持原顺序，null key 也作为一组
+     */
+    public static <K, T> Map<K, List<T>> groupByKey(Collection<T> items, Function<? super T, ? extends K> keyExtractor) {
+        if (items == null)
+            return null;
+        Map<K, List<T>> ret = Maps.newHashMapWithExpectedSize(items.size());
+        for (T item : items)
+            ret.computeIfAbsent(keyExtractor.apply(item), k -> new ArrayList<>(2)).add(item);
+        return ret;
+    }
+
+    public static <T> Map<Object, List<T>> groupByKey(Collection<T> items, String key) {
+        return groupByKey(items, property(key));
+    }
+
+    /**
+     * 内连接（hash join），每对key相等的(l, r)输出一次combiner(l, r)，两侧都可以有重复key
+     * 对较小的一侧建立hash索引，另一侧探测，O(n+m)；结果按left的顺序，同一个l的多个r按right的顺序
+     * key为null的元素不参与连接
+     */
+    public static <L, R, K, O> List<O> join(Collection<L> left, Function<? super L, ? extends K> leftKey,
+                                            Collection<R> right, Function<? super R, ? extends K> rightKey,
+                                            BiFunction<? super L, ? super R, ? extends O> combiner) {
+        List<O> ret = new ArrayList<>(Math.max(left.size(), right.size()));
+        hashJoin(left, leftKey, right, rightKey, (l, rs) -> {
+            for (R r : rs)
+                ret.add(combiner.apply(l, r));
+        });
+        return ret;
+    }
+
+    public static <L, R, O> List<O> join(Collection<L> left, String leftKey, Collection<R> right, String rightKey,
+                                         BiFunction<? super L, ? super R, ? extends O> combiner) {
+        return join(left, property(leftKey), right, property(rightKey), combiner);
+    }
+
+    /**
+     * 左连接，没有匹配的l输出combiner(l, null)，其余同{@link #join}
+     */
+    public static <L, R, K, O> List<O> leftJoin(Collection<L> left, Function<? super L, ? extends K> leftKey,
+                                                Collection<R> right, Function<? super R, ? extends K> rightKey,
+                                                BiFunction<? super L, ? super R, ? extends O> combiner) {
+        List<O> ret = new ArrayList<>(Math.max(left.size(), right.size()));
+        hashJoin(left, leftKey, right, rightKey, (l, rs) -> {
+            if (rs.isEmpty())
+                ret.add(combiner.apply(l, null));
+            for (R r : rs)
+                ret.add(combiner.apply(l, r));
+        });
+        return ret;
+    }
+
+    /**
+     * 一对多连接，每个l输出一次combiner(l, 匹配的r列表)，没有匹配时为空列表
+     * 对较小的一侧建立hash索引，另一侧探测，O(n+m)；结果按left的顺序，r列表按right的顺序
+     */
+    public static <L, R, K, O> List<O> joinMany(Collection<L> left, Function<? super L, ? extends K> leftKey,
+                                                Collection<R> right, Function<? super R, ? extends K> rightKey,
+                                                BiFunction<? super L, ? super List<R>, ? extends O> combiner) {
+        List<O> ret = new ArrayList<>(left.size());
+        hashJoin(left, leftKey, right, rightKey, (l, rs) -> ret.add(combiner.apply(l, rs)));
+        return ret;
+    }
+
+    public static <L, R, O> List<O> joinMany(Collection<L> left, String leftKey, Collection<R> right, String rightKey,
+                                             BiFunction<? super L, ? super List<R>, ? extends O> combiner) {
+        return joinMany(left, property(leftKey), right, property(rightKey), combiner);
+    }
+
+    /**
+     * 按left的顺序，对每个l调用sink(l, 匹配的r列表)
+     */
+    @SuppressWarnings("unchecked")
+    private static <L, R, K> void hashJoin(Collection<L> left, Function<? super L, ? extends K> leftKey,
+                                           Collection<R> right, Function<? super R, ? extends K> rightKey,
+                                           BiConsumer<L, List<R>> sink) {
+        if (right.size() <= left.size()) {
+            // 右侧较小：索引右侧，左侧探测
+            Map<K, List<R>> index = Maps.newHashMapWithExpectedSize(right.size());
+            for (R r : right) {
+                K k = rightKey.apply(r);
+                if (k != null)
+                    index.computeIfAbsent(k, x -> new ArrayList<>(2)).add(r);
+            }
+            for (L l : left) {
+                K k = leftKey.apply(l);
+                List<R> rs = k == null ? null : index.get(k);
+                sink.accept(l, rs == null ? Collections.emptyList() : rs);
+            }
+            return;
+        }
+        // 左侧较小：索引左侧的位置，右侧探测后放入对应位置
+        Object[] lefts = left.toArray();
+        List<R>[] matches = new List[lefts.length];
+        Map<K, Object> positions = Maps.newHashMapWithExpectedSize(lefts.length);
+        for (int i = 0; i < lefts.length; i++) {
+            K k = leftKey.apply((L) lefts[i]);
+            if (k == null)
+                continue;
+            Object p = positions.get(k);
+            if (p == null) {
+                positions.put(k, i);
+            } else if (p instanceof Integer) {
+                positions.put(k, Lists.newArrayList((Integer) p, i));
+            } else {
+                ((List<Integer>) p).add(i);
+            }
+        }
+        for (R r : right) {
+            K k = rightKey.apply(r);
+            Object p = k == null ? null : positions.get(k);
+            if (p instanceof Integer) {
+                add(matches, (Integer) p, r);
+            } else if (p != null) {
+                for (Integer i : (List<Integer>) p)
+                    add(matches, i, r);
+            }
+        }
+        for (int i = 0; i < lefts.length; i++)
+            sink.accept((L) lefts[i], matches[i] == null ? Collections.emptyList() : matches[i]);
+    }
+
+    private static <R> void add(List<R>[] matches, int i, R r) {
+        if (matches[i] == null)
+            matches[i] = new ArrayList<>(2);
+        matches[i].add(r);
+    }
+
+    /**
+     * 按属性名取值，缓存最近一次元素类型的getter（列表中的元素一般是同一类型）
+     */
+    private static final class PropertyGetter<T> implements Function<T, Object> {
+
+        private final String name;
+        private volatile Map.Entry<Class<?>, MethodHandle> last;
+
+        private PropertyGetter(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Object apply(T item) {
+            if (item == null)
+                return null;
+            Map.Entry<Class<?>, MethodHandle> getter = last;
+            if (getter == null || getter.getKey() != item.getClass())
+                last = getter = resolve(item.getClass());
+            try {
+                return (Object) getter.getValue().invokeExact((Object) item);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private Map.Entry<Class<?>, MethodHandle> resolve(Class<?> clazz) {
+            PropertyDescriptor pd = ClassMetadata.of(clazz).property(name);
+            if (pd == null || pd.getReadMethod() == null)
+                throw new IllegalArgumentException("没有可读的属性：" + clazz.getName() + "." + name);
+            try {
+                Method readMethod = pd.getReadMethod();
+                if (!readMethod.isAccessible())
+                    readMethod.setAccessible(true);
+                MethodHandle handle = MethodHandles.lookup().unreflect(readMethod)
+                        .asType(MethodType.methodType(Object.class, Object.class));
+                return new AbstractMap.SimpleImmutableEntry<>(clazz, handle);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+    }
+
 }
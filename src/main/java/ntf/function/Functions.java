@@ -1,8 +1,19 @@
 package ntf.function;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 public class Functions {
 
@@ -21,6 +32,180 @@ public class Functions {
         };
     }
 
+    /*
+     * 以下为合并后的版本，不生成中间的Pair，
+     * 例：.map(compute2By1(computer)).map(p(f2)) 等价于 .map(computeP(computer, f2))
+     */
+
+    /**
+     * compute2By1 + p
+     */
+    public static <A, B, T> Function<A, T> computeP(Function<A, B> computer, Function2<A, ? super B, T> f2) {
+        return a -> f2.apply(a, computer.apply(a));
+    }
+
+    /**
+     * compute2By1 + reduce2By1
+     */
+    public static <A, B> Function<A, A> computeReduce(Function<A, B> computer, Consumer2<A, ? super B> consumer) {
+        return a -> {
+            consumer.accept(a, computer.apply(a));
+            return a;
+        };
+    }
+
+    /**
+     * compute2By1 + p(mapper)后仍带着a + reduce2By1
+     */
+    public static <A, B, C> Function<A, A> computeMapReduce(Function<A, B> computer, Function2<A, ? super B, C> mapper,
+                                                            Consumer2<A, ? super C> consumer) {
+        return a -> {
+            consumer.accept(a, mapper.apply(a, computer.apply(a)));
+            return a;
+        };
+    }
+
+    /*
+     * 第二个值为基本类型的版本，全程不装箱
+     */
+
+    public static <A, T> Function<A, T> computeIntP(ToIntFunction<A> computer, IntFunction2<A, T> f2) {
+        return a -> f2.apply(a, computer.applyAsInt(a));
+    }
+
+    public static <A, T> Function<A, T> computeLongP(ToLongFunction<A> computer, LongFunction2<A, T> f2) {
+        return a -> f2.apply(a, computer.applyAsLong(a));
+    }
+
+    public static <A, T> Function<A, T> computeDoubleP(ToDoubleFunction<A> computer, DoubleFunction2<A, T> f2) {
+        return a -> f2.apply(a, computer.applyAsDouble(a));
+    }
+
+    public static <A> Function<A, A> computeIntReduce(ToIntFunction<A> computer, IntConsumer2<A> consumer) {
+        return a -> {
+            consumer.accept(a, computer.applyAsInt(a));
+            return a;
+        };
+    }
+
+    public static <A> Function<A, A> computeLongReduce(ToLongFunction<A> computer, LongConsumer2<A> consumer) {
+        return a -> {
+            consumer.accept(a, computer.applyAsLong(a));
+            return a;
+        };
+    }
+
+    public static <A> Function<A, A> computeDoubleReduce(ToDoubleFunction<A> computer, DoubleConsumer2<A> consumer) {
+        return a -> {
+            consumer.accept(a, computer.applyAsDouble(a));
+            return a;
+        };
+    }
+
+    /**
+     * 缓存函数结果，最多maximumSize个，超过后淘汰最近最少使用的
+     * 线程安全，同一个参数并发时只计算一次；null结果也会缓存，参数为null时不缓存
+     * 例：Memoized<String, String> dictName = Functions.memoize(dictService::getName, 10000);
+     */
+    public static <A, T> Memoized<A, T> memoize(Function<A, T> f, long maximumSize) {
+        return new Memoized<>(f, CacheBuilder.newBuilder().maximumSize(maximumSize));
+    }
+
+    /**
+     * @param ttl 写入后的存活时间
+     */
+    public static <A, T> Memoized<A, T> memoize(Function<A, T> f, long maximumSize, long ttl, TimeUnit unit) {
+        return new Memoized<>(f, CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl, unit));
+    }
+
+    /**
+     * 两个参数的版本，以 Pair.of(a, b) 为key
+     */
+    public static <A, B, T> Memoized2<A, B, T> memoize(Function2<A, B, T> f2, long maximumSize) {
+        return new Memoized2<>(memoize((Pair<A, B> pair) -> f2.apply(pair.getLeft(), pair.getRight()), maximumSize));
+    }
+
+    public static <A, B, T> Memoized2<A, B, T> memoize(Function2<A, B, T> f2, long maximumSize, long ttl, TimeUnit unit) {
+        return new Memoized2<>(memoize((Pair<A, B> pair) -> f2.apply(pair.getLeft(), pair.getRight()),
+                maximumSize, ttl, unit));
+    }
+
+    public static final class Memoized<A, T> implements Function<A, T> {
+
+        private final Function<A, T> f;
+        private final Cache<A, Optional<T>> cache;
+
+        @SuppressWarnings("unchecked")
+        private Memoized(Function<A, T> f, CacheBuilder<Object, Object> builder) {
+            this.f = f;
+            this.cache = (Cache<A, Optional<T>>) (Cache<?, ?>) builder.recordStats().build();
+        }
+
+        @Override
+        public T apply(A a) {
+            if (a == null)
+                return f.apply(null);
+            try {
+                return cache.get(a, () -> Optional.ofNullable(f.apply(a))).orElse(null);
+            } catch (UncheckedExecutionException | ExecutionException | ExecutionError e) {
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                if (e.getCause() instanceof Error)
+                    throw (Error) e.getCause();
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        /**
+         * 命中/未命中/淘汰次数
+         */
+        public CacheStats stats() {
+            return cache.stats();
+        }
+
+        public long size() {
+            return cache.size();
+        }
+
+        public void invalidate(A a) {
+            cache.invalidate(a);
+        }
+
+        public void invalidateAll() {
+            cache.invalidateAll();
+        }
+    }
+
+    public static final class Memoized2<A, B, T> implements Function2<A, B, T> {
+
+        private final Memoized<Pair<A, B>, T> memoized;
+
+        private Memoized2(Memoized<Pair<A, B>, T> memoized) {
+            this.memoized = memoized;
+        }
+
+        @Override
+        public T apply(A a, B b) {
+            return memoized.apply(Pair.of(a, b));
+        }
+
+        public CacheStats stats() {
+            return memoized.stats();
+        }
+
+        public long size() {
+            return memoized.size();
+        }
+
+        public void invalidate(A a, B b) {
+            memoized.invalidate(Pair.of(a, b));
+        }
+
+        public void invalidateAll() {
+            memoized.invalidateAll();
+        }
+    }
+
 //    public static <A, B> Consumer<Pair<A, B>> p(Consumer2<A, B> f2) {
 //        return pair -> f2.apply(pair.getLeft(), pair.getRight());
 //    }
@@ -35,4 +220,34 @@ public class Functions {
         void accept(SA a, SB b);
     }
 
+    @FunctionalInterface
+    public interface IntFunction2<SA, T> {
+        T apply(SA a, int b);
+    }
+
+    @FunctionalInterface
+    public interface LongFunction2<SA, T> {
+        T apply(SA a, long b);
+    }
+
+    @FunctionalInterface
+    public interface DoubleFunction2<SA, T> {
+        T apply(SA a, double b);
+    }
+
+    @FunctionalInterface
+    public interface IntConsumer2<SA> {
+        void accept(SA a, int b);
+    }
+
+    @FunctionalInterface
+    public interface LongConsumer2<SA> {
+        void accept(SA a, long b);
+    }
+
+    @FunctionalInterface
+    public interface DoubleConsumer2<SA> {
+        void accept(SA a, double b);
+    }
+
 }
@@ -0,0 +1,307 @@
+package ntf.mybatis;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * json的紧凑二进制编码
+ * <pre>
+ * 头部: MAGIC(1) | VERSION(1) | FLAGS(1) [| 原始长度(varint)，仅压缩时]
+ * 值:   tag(1) + 内容
+ *   NULL/FALSE/TRUE  无内容
+ *   LONG             zigzag varint
+ *   DOUBLE           8字节 big-endian
+ *   DECIMAL/STRING   varint长度 + utf8
+ *   ARRAY            值... END
+ *   OBJECT           (STRING key, 值)... END
+ * </pre>
+ * MAGIC 为 0xB7，不可能是json文本（utf8）的首字节，据此区分旧的json数据
+ * 容器以END结尾，不需要预先知道个数，顶层数组的元素可以逐个编码、逐个解码
+ */
+final class BinaryJson {
+
+    static final byte MAGIC = (byte) 0xB7;
+
+    static final byte VERSION = 1;
+
+    static final int FLAG_DEFLATE = 1;
+
+    private static final int HEADER = 3;
+
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte DECIMAL = 5;
+    private static final byte STRING = 6;
+    private static final byte ARRAY = 7;
+    private static final byte OBJECT = 8;
+    private static final byte END = 9;
+
+    private BinaryJson() {
+    }
+
+    static boolean isBinary(byte[] bytes) {
+        return bytes.length > 0 && bytes[0] == MAGIC;
+    }
+
+    /**
+     * 编码器，先写入头部占位，body写完后由{@link #finish}决定是否压缩
+     */
+    static final class Encoder {
+
+        private final Buffer out = new Buffer();
+
+        Encoder() {
+            out.write(MAGIC);
+            out.write(VERSION);
+            out.write(0);
+        }
+
+        Encoder beginArray() {
+            out.write(ARRAY);
+            return this;
+        }
+
+        Encoder endArray() {
+            out.write(END);
+            return this;
+        }
+
+        Encoder value(JsonElement e) {
+            if (e == null || e.isJsonNull()) {
+                out.write(NULL);
+            } else if (e.isJsonPrimitive()) {
+                primitive(e.getAsJsonPrimitive());
+            } else if (e.isJsonArray()) {
+                beginArray();
+                for (JsonElement item : e.getAsJsonArray())
+                    value(item);
+                endArray();
+            } else {
+                out.write(OBJECT);
+                for (Map.Entry<String, JsonElement> entry : e.getAsJsonObject().entrySet()) {
+                    out.write(STRING);
+                    writeString(entry.getKey());
+                    value(entry.getValue());
+                }
+                out.write(END);
+            }
+            return this;
+        }
+
+        /**
+         * @param compressThreshold body超过该字节数时尝试deflate，压缩后更小才使用，小于0不压缩
+         */
+        byte[] finish(int compressThreshold) {
+            int bodyLength = out.size() - HEADER;
+            if (compressThreshold >= 0 && bodyLength > compressThreshold) {
+                Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                try {
+                    deflater.setInput(out.array(), HEADER, bodyLength);
+                    deflater.finish();
+                    Buffer compressed = new Buffer();
+                    compressed.write(MAGIC);
+                    compressed.write(VERSION);
+                    compressed.write(FLAG_DEFLATE);
+                    writeVarint(compressed, bodyLength);
+                    byte[] chunk = new byte[4096];
+                    while (!deflater.finished() && compressed.size() < out.size())
+                        compressed.write(chunk, 0, deflater.deflate(chunk));
+                    if (deflater.finished() && compressed.size() < out.size())
+                        return compressed.toByteArray();
+                } finally {
+                    deflater.end();
+                }
+            }
+            return out.toByteArray();
+        }
+
+        private void primitive(JsonPrimitive p) {
+            if (p.isBoolean()) {
+                out.write(p.getAsBoolean() ? TRUE : FALSE);
+            } else if (p.isString()) {
+                out.write(STRING);
+                writeString(p.getAsString());
+            } else {
+                Number n = p.getAsNumber();
+                if (n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte) {
+                    out.write(LONG);
+                    long v = n.longValue();
+                    writeVarint((v << 1) ^ (v >> 63));
+                } else if (n instanceof Double || n instanceof Float) {
+                    out.write(DOUBLE);
+                    long bits = Double.doubleToLongBits(n.doubleValue());
+                    for (int shift = 56; shift >= 0; shift -= 8)
+                        out.write((int) (bits >>> shift));
+                } else {
+                    // BigDecimal、BigInteger及解析出来的LazilyParsedNumber，原样保留文本
+                    out.write(DECIMAL);
+                    writeString(n.toString());
+                }
+            }
+        }
+
+        private void writeString(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        private void writeVarint(long v) {
+            writeVarint(out, v);
+        }
+
+        private static void writeVarint(Buffer out, long v) {
+            while ((v & ~0x7FL) != 0) {
+                out.write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            out.write((int) v);
+        }
+    }
+
+    /**
+     * 解码器，构造时校验头部并解压
+     */
+    static final class Decoder {
+
+        private final byte[] in;
+        private int pos;
+
+        Decoder(byte[] bytes) {
+            if (!isBinary(bytes) || bytes.length < HEADER)
+                throw new IllegalArgumentException("不是二进制json");
+            if (bytes[1] > VERSION)
+                throw new IllegalArgumentException("不支持的二进制json版本: " + bytes[1]);
+            if ((bytes[2] & FLAG_DEFLATE) != 0) {
+                pos = HEADER;
+                int length = (int) readVarint(bytes);
+                Inflater inflater = new Inflater();
+                try {
+                    inflater.setInput(bytes, pos, bytes.length - pos);
+                    in = new byte[length];
+                    if (inflater.inflate(in) != length)
+                        throw new IllegalArgumentException("二进制json长度不正确");
+                } catch (DataFormatException e) {
+                    throw new IllegalArgumentException(e);
+                } finally {
+                    inflater.end();
+                }
+                pos = 0;
+            } else {
+                in = bytes;
+                pos = HEADER;
+            }
+        }
+
+        /**
+         * 进入顶层数组，之后在{@link #hasNext}为true时依次调用{@link #next}
+         */
+        void beginArray() {
+            if (tag() != ARRAY)
+                throw new IllegalArgumentException("二进制json不是数组");
+            pos++;
+        }
+
+        boolean hasNext() {
+            if (tag() != END)
+                return true;
+            pos++;
+            return false;
+        }
+
+        JsonElement next() {
+            byte tag = tag();
+            pos++;
+            switch (tag) {
+                case NULL:
+                    return JsonNull.INSTANCE;
+                case FALSE:
+                    return new JsonPrimitive(false);
+                case TRUE:
+                    return new JsonPrimitive(true);
+                case LONG:
+                    long v = readVarint(in);
+                    return new JsonPrimitive((v >>> 1) ^ -(v & 1));
+                case DOUBLE:
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++)
+                        bits = (bits << 8) | (in[pos++] & 0xFF);
+                    return new JsonPrimitive(Double.longBitsToDouble(bits));
+                case DECIMAL:
+                    String number = readString();
+                    return new JsonPrimitive(number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0
+                            ? new BigInteger(number) : new BigDecimal(number));
+                case STRING:
+                    return new JsonPrimitive(readString());
+                case ARRAY:
+                    JsonArray array = new JsonArray();
+                    while (hasNext())
+                        array.add(next());
+                    return array;
+                case OBJECT:
+                    JsonObject object = new JsonObject();
+                    while (hasNext()) {
+                        if (in[pos++] != STRING)
+                            throw new IllegalArgumentException("二进制json对象的key不是字符串");
+                        String name = readString();
+                        object.add(name, next());
+                    }
+                    return object;
+                default:
+                    throw new IllegalArgumentException("未知的二进制json标记: " + tag);
+            }
+        }
+
+        private byte tag() {
+            if (pos >= in.length)
+                throw new IllegalArgumentException("二进制json不完整");
+            return in[pos];
+        }
+
+        private String readString() {
+            int length = (int) readVarint(in);
+            String s = new String(in, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return s;
+        }
+
+        private long readVarint(byte[] bytes) {
+            long v = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[pos++];
+                v |= (long) (b & 0x7F) << shift;
+                if (b >= 0)
+                    return v;
+            }
+        }
+    }
+
+    /**
+     * 可直接访问内部数组的ByteArrayOutputStream
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer() {
+            super(256);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
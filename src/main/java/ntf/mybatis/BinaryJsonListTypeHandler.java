@@ -0,0 +1,94 @@
+package ntf.mybatis;
+
+import org.apache.ibatis.type.JdbcType;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 以紧凑二进制格式（见{@link BinaryJson}）存储到BLOB列的JsonListTypeHandler
+ * 读取时兼容旧的json文本数据，新写入的数据使用二进制格式
+ * 不支持codec、projection、streaming，设置了会在读写时抛出IllegalStateException
+ */
+public abstract class BinaryJsonListTypeHandler<T> extends JsonListTypeHandler<T> {
+
+    /**
+     * body超过该字节数时尝试deflate压缩，小于0不压缩
+     */
+    protected int compressThreshold = 512;
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, List<T> parameter, JdbcType jdbcType) throws SQLException {
+        Object raw = LazyJsonList.raw(parameter);
+        ps.setBytes(i, raw instanceof byte[] ? (byte[]) raw : this.toBytes(parameter));
+    }
+
+    @Override
+    public List<T> getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        byte[] content = rs.getBytes(columnName);
+        return lazy ? this.toLazyObject(content) : this.toObject(content);
+    }
+
+    @Override
+    public List<T> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        byte[] content = rs.getBytes(columnIndex);
+        return lazy ? this.toLazyObject(content) : this.toObject(content);
+    }
+
+    @Override
+    public List<T> getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        byte[] content = cs.getBytes(columnIndex);
+        return lazy ? this.toLazyObject(content) : this.toObject(content);
+    }
+
+    private byte[] toBytes(List<T> list) {
+        checkOptions();
+        try {
+            // 每次只生成一个元素的JsonElement，不生成整列
+            BinaryJson.Encoder encoder = new BinaryJson.Encoder().beginArray();
+            for (T t : list)
+                encoder.value(adapter(t).toJsonTree(t));
+            return encoder.endArray().finish(compressThreshold);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private List<T> toLazyObject(byte[] content) {
+        if (content == null || content.length == 0)
+            return null;
+        return new LazyJsonList<>(content, this::toObject);
+    }
+
+    private List<T> toObject(byte[] content) {
+        checkOptions();
+        if (content == null || content.length == 0)
+            return null;
+        if (!BinaryJson.isBinary(content)) // 旧数据
+            return this.toObject(new String(content, StandardCharsets.UTF_8));
+        try {
+            BinaryJson.Decoder decoder = new BinaryJson.Decoder(content);
+            List<T> list = new ArrayList<>();
+            decoder.beginArray();
+            while (decoder.hasNext())
+                list.add(adapter().fromJsonTree(decoder.next()));
+            return list;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 二进制格式只通过gson的TypeAdapter读写，codec、projection、streaming都不适用，
+     * 为了新旧数据读出来的结果一致，旧的json文本也不使用
+     */
+    private void checkOptions() {
+        if (codec != null || projection != null || streaming)
+            throw new IllegalStateException(getClass().getName() + ": BinaryJsonListTypeHandler不支持codec、projection、streaming");
+    }
+}
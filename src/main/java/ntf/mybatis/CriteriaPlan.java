@@ -0,0 +1,445 @@
+package ntf.mybatis;
+
+import com.google.common.collect.Lists;
+import lombok.extern.log4j.Log4j2;
+import ntf.annotation.Criteria;
+import ntf.core.ClassMetadata;
+import ntf.function.BeanFunctions;
+import org.apache.commons.lang.StringUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Query -> Criteria 的转换计划
+ * 每对(query类, criteria类)只解析一次注解、方法名和getter/setter，之后的转换只执行预先绑定好的步骤
+ */
+@Log4j2
+final class CriteriaPlan {
+
+    private static final List<Class> criteriaAnnos = Lists.newArrayList(Criteria.class.getDeclaredClasses());
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    // Example中会使Split.QUERY合并的结果不正确的属性：排序、distinct及常见分页插件的属性
+    private static final String[] QUERY_SPLIT_UNSUPPORTED = {"orderByClause", "distinct", "limit", "offset", "limitStart", "rows"};
+
+    // 空IN列表对应的条件
+    static final String ALWAYS_FALSE = "1 = 0";
+
+    private static final UnaryOperator<Object> IDENTITY = UnaryOperator.identity();
+    private static final UnaryOperator<Object> LIKE = obj -> Likes.contains(obj, false);
+    private static final UnaryOperator<Object> DISTINCT = obj -> obj instanceof Collection
+            ? new ArrayList<>(new LinkedHashSet<>((Collection<?>) obj))
+            : obj;
+
+    // query类 -> (criteria类 -> plan)，挂在query类上，随类卸载
+    private static final ClassValue<ConcurrentMap<Class<?>, CriteriaPlan>> PLANS =
+            new ClassValue<ConcurrentMap<Class<?>, CriteriaPlan>>() {
+                @Override
+                protected ConcurrentMap<Class<?>, CriteriaPlan> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private final Class<?> queryClass;
+    private final Class<?> criteriaClass;
+    private final Step[] steps;
+    // 不参与转换的可读属性（@Criteria.Except、继承的分页参数等），只用于指纹
+    private final String[] extraProperties;
+    private final MethodHandle[] extraGetters;
+
+    private CriteriaPlan(Class<?> queryClass, Class<?> criteriaClass, Step[] steps,
+                         String[] extraProperties, MethodHandle[] extraGetters) {
+        this.queryClass = queryClass;
+        this.criteriaClass = criteriaClass;
+        this.steps = steps;
+        this.extraProperties = extraProperties;
+        this.extraGetters = extraGetters;
+    }
+
+    static CriteriaPlan of(Class<?> queryClass, Class<?> criteriaClass) {
+        return PLANS.get(queryClass).computeIfAbsent(criteriaClass, cc -> build(queryClass, cc));
+    }
+
+    void apply(Object q, Object criteria) throws Throwable {
+        write(criteria, read(q));
+    }
+
+    /**
+     * 按IN/NOT IN的拆分配置执行查询
+     * 有空的IN列表时直接返回空结果，不访问数据库
+     * @param exampleFactory 创建Example
+     * @param or 在Example上新建一组OR条件，一般为 XxxExample::or
+     * @param selector 执行查询，一般为 mapper::selectByExample
+     */
+    <E, R> List<R> select(Object q, Supplier<E> exampleFactory, Function<E, ?> or, Function<E, List<R>> selector)
+            throws Throwable {
+        Object[] values = read(q);
+        List<Integer> orSplits = Lists.newArrayList();
+        List<Integer> querySplits = Lists.newArrayList();
+        for (int i = 0; i < steps.length; i++) {
+            Step step = steps[i];
+            if (step.in == null || values[i] == null)
+                continue;
+            if (values[i] instanceof Collection && ((Collection<?>) values[i]).isEmpty())
+                return new ArrayList<>();
+            if (step.oversized(values[i])) {
+                if (step.in.split() == Criteria.Split.QUERY)
+                    querySplits.add(i);
+                else
+                    orSplits.add(i);
+            }
+        }
+        // 各段去重后互不相交，一行只会被其中一次查询命中
+        for (int i : querySplits)
+            values[i] = DISTINCT.apply(values[i]);
+        List<R> result = new ArrayList<>();
+        expand(values, querySplits, 0, qv -> {
+            E example = exampleFactory.get();
+            if (!querySplits.isEmpty())
+                checkQuerySplit(example);
+            expand(qv, orSplits, 0, ov -> write(or.apply(example), ov));
+            result.addAll(selector.apply(example));
+        });
+        return result;
+    }
+
+    /**
+     * 查询条件的指纹，包含query所有可读属性：参与转换的属性取转换后的值，
+     * 其余属性（@Criteria.Except、继承的pageNum/pageSize等）取原值，
+     * 否则只有分页参数不同的两个查询会得到相同的指纹
+     */
+    QueryFingerprint fingerprint(Object q) throws Throwable {
+        Object[] values = Arrays.copyOf(read(q), steps.length + extraGetters.length);
+        for (int i = 0; i < steps.length; i++) {
+            if (values[i] != null)
+                values[i] = steps[i].normalize(values[i]);
+        }
+        for (int i = 0; i < extraGetters.length; i++)
+            values[steps.length + i] = normalize((Object) extraGetters[i].invokeExact(q));
+        return new QueryFingerprint(this, values);
+    }
+
+    private Object[] read(Object q) throws Throwable {
+        Object[] values = new Object[steps.length];
+        for (int i = 0; i < steps.length; i++)
+            values[i] = steps[i].read(q);
+        return values;
+    }
+
+    private void write(Object criteria, Object[] values) throws Throwable {
+        for (int i = 0; i < steps.length; i++) {
+            if (values[i] != null)
+                steps[i].write(criteria, values[i]);
+        }
+    }
+
+    /**
+     * 拆成多次查询时只能按顺序拼接结果，排序、分页、distinct都只作用于每次查询，不允许使用
+     */
+    private static void checkQuerySplit(Object example) throws Throwable {
+        ClassMetadata metadata = ClassMetadata.of(example.getClass());
+        for (String name : QUERY_SPLIT_UNSUPPORTED) {
+            PropertyDescriptor pd = metadata.property(name);
+            if (pd == null || pd.getReadMethod() == null)
+                continue;
+            Object value = pd.getReadMethod().invoke(example);
+            if (value != null && !Boolean.FALSE.equals(value) && !(value instanceof Number && ((Number) value).longValue() <= 0))
+                throw new IllegalArgumentException("Split.QUERY拆分的查询不支持" + name + ": " + example.getClass().getName());
+        }
+    }
+
+    /**
+     * 对需要拆分的IN依次取每一段，展开成所有组合
+     */
+    private void expand(Object[] values, List<Integer> splits, int k, ThrowingConsumer<Object[]> sink) throws Throwable {
+        if (k == splits.size()) {
+            sink.accept(values);
+            return;
+        }
+        int i = splits.get(k);
+        Object full = values[i];
+        for (List<?> part : Lists.partition((List<?>) full, steps[i].in.batchSize())) {
+            values[i] = part;
+            expand(values, splits, k + 1, sink);
+        }
+        values[i] = full;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CriteriaPlan build(Class<?> queryClass, Class<?> criteriaClass) {
+        ClassMetadata metadata = ClassMetadata.of(queryClass);
+        // mybatis生成的andXxx方法在父类GeneratedCriteria中，自身声明的方法优先
+        Map<Object, Method> criteriaMethodsByName = BeanFunctions.identifyByKey(criteriaClass.getMethods(), "name");
+        criteriaMethodsByName.putAll(BeanFunctions.identifyByKey(criteriaClass.getDeclaredMethods(), "name"));
+        List<Step> steps = Lists.newArrayList();
+        try {
+            for (PropertyDescriptor pd : metadata.properties()) {
+                String propertyName = pd.getName();
+                if ("class".equals(propertyName))  //跳过类自带的属性
+                    continue;
+                Method getter = pd.getReadMethod();
+                if (getter == null)
+                    continue;
+                Field f = metadata.field(propertyName);
+                if (f == null || f.getDeclaringClass() != queryClass) //只处理自身声明的字段，不包括继承的属性
+                    continue;
+                Annotation[] annos = f.getAnnotations();
+                Criteria criteriaAnno = metadata.criteria(propertyName);
+                Class<?> annoClass = null;
+                if (criteriaAnno == null) {
+                    annoClass = Criteria.EqualTo.class; // 默认为相等
+                } else {
+                    for (Annotation anno : annos) {
+                        if (criteriaAnnos.contains(anno.annotationType())) {
+                            annoClass = anno.annotationType();
+                            break;
+                        }
+                    }
+                }
+                if (annoClass == Criteria.Except.class) // 排除
+                    continue;
+                if (annoClass == null) //未找到（理论上经过上面代码不会进入该分支条件，这里是为了预防spring升级产生的可能的变动）
+                    continue;
+
+                // 方法名
+                String ctMethodName = "and";
+                // 如果用户在注解里定义了value就用提供的value，否则默认用字段名
+                if (criteriaAnno != null && StringUtils.isNotBlank(criteriaAnno.value())) {
+                    ctMethodName += StringUtils.capitalize(criteriaAnno.value());
+                } else {
+                    ctMethodName += StringUtils.capitalize(propertyName);
+                }
+                // 去掉注解名后缀，补上方法后缀（StartsWith/EndsWith 对应的是Like方法）
+                ctMethodName = StringUtils.removeEnd(ctMethodName, annoClass.getSimpleName()) + methodSuffix(annoClass);
+
+                Annotation opAnno = f.getAnnotation((Class<? extends Annotation>) annoClass);
+                UnaryOperator<Object> jsonCondition = jsonCondition(opAnno, ctMethodName);
+                if (jsonCondition != null) {
+                    // json条件没有对应的andXxx方法，直接addCriterion(String)
+                    Method adder = JsonConditions.addCriterionMethod(criteriaClass);
+                    if (adder == null) {
+                        log.warn("未找到query 2 criteria的方法：" + criteriaClass.getName() + ".addCriterion(String)");
+                        continue;
+                    }
+                    steps.add(new Step(propertyName, annoClass, handle(getter, GETTER_TYPE), jsonCondition,
+                            handle(adder, SETTER_TYPE), null, 0, null));
+                    continue;
+                }
+
+                Method setter = criteriaMethodsByName.get(ctMethodName);
+                if (setter == null) {
+                    log.warn("未找到query 2 criteria的方法：" + criteriaClass.getName() + "." + ctMethodName);
+                    continue;
+                }
+                UnaryOperator<Object> operator = IDENTITY;
+                if (opAnno instanceof Criteria.Like)
+                    operator = like((Criteria.Like) opAnno);
+                else if (opAnno instanceof Criteria.StartsWith)
+                    operator = startsWith(((Criteria.StartsWith) opAnno).escape());
+                else if (opAnno instanceof Criteria.EndsWith)
+                    operator = endsWith(((Criteria.EndsWith) opAnno).escape());
+                else if (opAnno instanceof Criteria.In && ((Criteria.In) opAnno).distinct()
+                        || opAnno instanceof Criteria.NotIn && ((Criteria.NotIn) opAnno).distinct())
+                    operator = DISTINCT;
+                // 空IN通过 addCriterion(String) 写入恒假条件，没有该方法时仍调用andXxxIn，由数据库报错
+                Method adder = opAnno instanceof Criteria.In ? JsonConditions.addCriterionMethod(criteriaClass) : null;
+                steps.add(new Step(propertyName, annoClass, handle(getter, GETTER_TYPE), operator, handle(setter, SETTER_TYPE),
+                        opAnno instanceof Criteria.In ? (Criteria.In) opAnno : null,
+                        opAnno instanceof Criteria.NotIn ? ((Criteria.NotIn) opAnno).batchSize() : 0,
+                        adder == null ? null : handle(adder, SETTER_TYPE)));
+            }
+        } catch (IllegalAccessException e) {
+            log.error("query 2 criteria解析失败：" + queryClass.getName(), e);
+        }
+        List<String> extraProperties = Lists.newArrayList();
+        List<MethodHandle> extraGetters = Lists.newArrayList();
+        Set<String> converted = new HashSet<>();
+        for (Step step : steps)
+            converted.add(step.property);
+        for (PropertyDescriptor pd : metadata.properties()) {
+            Method getter = pd.getReadMethod();
+            if ("class".equals(pd.getName()) || getter == null || converted.contains(pd.getName()))
+                continue;
+            try {
+                extraGetters.add(handle(getter, GETTER_TYPE));
+                extraProperties.add(pd.getName());
+            } catch (IllegalAccessException e) {
+                log.error("query 2 criteria解析失败：" + queryClass.getName() + "." + pd.getName(), e);
+            }
+        }
+        return new CriteriaPlan(queryClass, criteriaClass, steps.toArray(new Step[steps.size()]),
+                extraProperties.toArray(new String[0]), extraGetters.toArray(new MethodHandle[0]));
+    }
+
+    private static String methodSuffix(Class<?> annoClass) {
+        if (annoClass == Criteria.StartsWith.class || annoClass == Criteria.EndsWith.class)
+            return Criteria.Like.class.getSimpleName();
+        return annoClass.getSimpleName();
+    }
+
+    /**
+     * json列的条件，值转换为完整的条件语句，非json注解返回null
+     * @param ctMethodName 按普通注解生成的方法名，未指定column时从中取字段名
+     */
+    private static UnaryOperator<Object> jsonCondition(Annotation opAnno, String ctMethodName) {
+        String column;
+        if (opAnno instanceof Criteria.JsonContains)
+            column = ((Criteria.JsonContains) opAnno).column();
+        else if (opAnno instanceof Criteria.JsonOverlaps)
+            column = ((Criteria.JsonOverlaps) opAnno).column();
+        else if (opAnno instanceof Criteria.MemberOf)
+            column = ((Criteria.MemberOf) opAnno).column();
+        else
+            return null;
+        if (StringUtils.isBlank(column)) {
+            String name = ctMethodName.substring("and".length(),
+                    ctMethodName.length() - opAnno.annotationType().getSimpleName().length());
+            column = JsonConditions.column(StringUtils.uncapitalize(name));
+        }
+        String c = column;
+        if (opAnno instanceof Criteria.JsonContains)
+            return obj -> JsonConditions.contains(c, obj);
+        if (opAnno instanceof Criteria.JsonOverlaps)
+            return obj -> JsonConditions.overlaps(c, obj);
+        return obj -> JsonConditions.memberOf(c, obj);
+    }
+
+    private static UnaryOperator<Object> like(Criteria.Like like) {
+        if (like.indexed())
+            return startsWith(like.escape());
+        return like.escape() ? obj -> Likes.contains(obj, true) : LIKE;
+    }
+
+    private static UnaryOperator<Object> startsWith(boolean escape) {
+        return obj -> Likes.startsWith(obj, escape);
+    }
+
+    private static UnaryOperator<Object> endsWith(boolean escape) {
+        return obj -> Likes.endsWith(obj, escape);
+    }
+
+    /**
+     * 集合、数组复制一份防止外部修改，数组转为List以按内容比较
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Collection)
+            return Collections.unmodifiableList(new ArrayList<>((Collection<?>) value));
+        if (value instanceof Object[])
+            return Collections.unmodifiableList(Arrays.asList(((Object[]) value).clone()));
+        return value;
+    }
+
+    private static MethodHandle handle(Method method, MethodType type) throws IllegalAccessException {
+        if (!method.isAccessible())
+            method.setAccessible(true);
+        return MethodHandles.lookup().unreflect(method).asType(type);
+    }
+
+    /**
+     * 单个属性的转换步骤：getter -> operator -> criteria方法
+     */
+    private static final class Step {
+
+        private final String property;
+        // 操作对应的注解类型
+        private final Class<?> op;
+        private final MethodHandle getter;
+        private final UnaryOperator<Object> operator;
+        private final MethodHandle setter;
+        // IN 的拆分配置，非IN为null
+        private final Criteria.In in;
+        // NOT IN 单次的最大元素个数
+        private final int notInBatchSize;
+        // IN 的 addCriterion(String)，用于空列表
+        private final MethodHandle adder;
+
+        private Step(String property, Class<?> op, MethodHandle getter, UnaryOperator<Object> operator,
+                     MethodHandle setter, Criteria.In in, int notInBatchSize, MethodHandle adder) {
+            this.property = property;
+            this.op = op;
+            this.getter = getter;
+            this.operator = operator;
+            this.setter = setter;
+            this.in = in;
+            this.notInBatchSize = notInBatchSize;
+            this.adder = adder;
+        }
+
+        private Object read(Object q) throws Throwable {
+            Object obj = (Object) getter.invokeExact(q);
+            if (obj == null) // TODO isNull 和  isNotNull 逻辑
+                return null;
+            return operator.apply(obj);
+        }
+
+        private void write(Object criteria, Object value) throws Throwable {
+            if (value instanceof Collection && ((Collection<?>) value).isEmpty()) {
+                // 空NOT IN等于没有条件；空IN恒为假，不能生成 in ()
+                if (op == Criteria.NotIn.class)
+                    return;
+                if (adder != null) {
+                    adder.invokeExact(criteria, (Object) ALWAYS_FALSE);
+                    return;
+                }
+            }
+            if (notInBatchSize > 0 && value instanceof List) {
+                // NOT IN 拆分后仍是AND关系，直接在同一个criteria上追加
+                for (List<?> part : Lists.partition((List<?>) value, notInBatchSize))
+                    setter.invokeExact(criteria, (Object) part);
+                return;
+            }
+            setter.invokeExact(criteria, value);
+        }
+
+        /**
+         * 用于比较查询条件是否相同的值：IN/NOT IN 与顺序、重复无关，其余同 CriteriaPlan.normalize
+         */
+        private Object normalize(Object value) {
+            if (value instanceof Collection && (op == Criteria.In.class || op == Criteria.NotIn.class))
+                return Collections.unmodifiableSet(new HashSet<>((Collection<?>) value));
+            return CriteriaPlan.normalize(value);
+        }
+
+        private boolean oversized(Object value) {
+            return in.batchSize() > 0 && value instanceof List && ((List<?>) value).size() > in.batchSize();
+        }
+
+        @Override
+        public String toString() {
+            return property;
+        }
+    }
+
+    String describe(Object[] values) {
+        StringBuilder sb = new StringBuilder(queryClass.getSimpleName()).append("->")
+                .append(criteriaClass.getSimpleName()).append('{');
+        String sep = "";
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null)
+                continue;
+            sb.append(sep).append(i < steps.length ? steps[i].property : extraProperties[i - steps.length])
+                    .append('=').append(values[i]);
+            sep = ", ";
+        }
+        return sb.append('}').toString();
+    }
+
+    @FunctionalInterface
+    private interface ThrowingConsumer<T> {
+        void accept(T t) throws Throwable;
+    }
+}
@@ -0,0 +1,36 @@
+package ntf.mybatis;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.util.ParameterizedTypeImpl;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 基于fastjson，List&lt;T&gt;的Type只构造一次，fastjson按Type缓存反序列化器
+ */
+public class FastjsonCodec implements JsonListCodec {
+
+    private final ConcurrentMap<Class<?>, ListAdapter<?>> adapters = new ConcurrentHashMap<>();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> ListAdapter<T> adapter(Class<T> clazz) {
+        return (ListAdapter<T>) adapters.computeIfAbsent(clazz, c -> {
+            Type listType = new ParameterizedTypeImpl(new Type[]{c}, null, List.class);
+            return new ListAdapter<Object>() {
+                @Override
+                public String toJson(List<Object> list) {
+                    return JSON.toJSONString(list);
+                }
+
+                @Override
+                public List<Object> fromJson(String json) {
+                    return JSON.parseObject(json, listType);
+                }
+            };
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package ntf.mybatis;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 基于gson的List&lt;T&gt;的TypeAdapter
+ */
+public class GsonCodec implements JsonListCodec {
+
+    static final Gson DEFAULT_GSON = new Gson();
+
+    private final Gson gson;
+
+    private final ConcurrentMap<Class<?>, ListAdapter<?>> adapters = new ConcurrentHashMap<>();
+
+    public GsonCodec() {
+        this(DEFAULT_GSON);
+    }
+
+    public GsonCodec(Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> ListAdapter<T> adapter(Class<T> clazz) {
+        return (ListAdapter<T>) adapters.computeIfAbsent(clazz,
+                c -> adapter(TypeToken.getParameterized(List.class, c).getType()));
+    }
+
+    /**
+     * 指定完整的List类型，如元素本身也带泛型
+     */
+    @SuppressWarnings("unchecked")
+    <T> ListAdapter<T> adapter(Type listType) {
+        TypeAdapter<List<T>> typeAdapter = (TypeAdapter<List<T>>) gson.getAdapter(TypeToken.get(listType));
+        return new ListAdapter<T>() {
+            @Override
+            public String toJson(List<T> list) {
+                StringWriter out = new StringWriter();
+                try {
+                    write(list, out);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                return out.toString();
+            }
+
+            @Override
+            public void write(List<T> list, Writer out) throws IOException {
+                // 与gson.toJson一致，使用gson的配置（serializeNulls等）
+                JsonWriter writer = gson.newJsonWriter(out);
+                writer.setLenient(true);
+                typeAdapter.write(writer, list);
+                writer.flush();
+            }
+
+            @Override
+            public List<T> fromJson(String json) {
+                try {
+                    JsonReader reader = gson.newJsonReader(new StringReader(json));
+                    reader.setLenient(true);
+                    try {
+                        reader.peek();
+                    } catch (EOFException e) { // 只有空白，与gson.fromJson一致返回null
+                        return null;
+                    }
+                    return typeAdapter.read(reader);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+    }
+}
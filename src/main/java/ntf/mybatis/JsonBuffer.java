@@ -0,0 +1,97 @@
+package ntf.mybatis;
+
+import java.io.Writer;
+
+/**
+ * 线程内复用的序列化缓冲区，避免每次写入都重新分配并扩容StringWriter
+ * 超过{@link #MAX_RETAINED}的缓冲区用完即丢弃，不长期占用内存
+ * ThreadLocal中只存放StringBuilder，不引用本类，应用卸载后线程池中的线程不会持有应用的ClassLoader
+ * 可通过{@link #clear()}（JsonListTypeHandler.clearThreadBuffer）释放当前线程的缓冲区
+ */
+final class JsonBuffer extends Writer {
+
+    static final int MAX_RETAINED = 256 * 1024;
+
+    private static final ThreadLocal<StringBuilder> LOCAL = new ThreadLocal<>();
+
+    private final StringBuilder sb;
+
+    private JsonBuffer(StringBuilder sb) {
+        this.sb = sb;
+    }
+
+    /**
+     * 取出当前线程的缓冲区，release时放回，嵌套使用时取到的是新的缓冲区
+     */
+    static JsonBuffer acquire() {
+        StringBuilder sb = LOCAL.get();
+        if (sb == null)
+            return new JsonBuffer(new StringBuilder(1024));
+        LOCAL.set(null);
+        return new JsonBuffer(sb);
+    }
+
+    void release() {
+        if (sb.capacity() > MAX_RETAINED)
+            return;
+        sb.setLength(0);
+        LOCAL.set(sb);
+    }
+
+    int capacity() {
+        return sb.capacity();
+    }
+
+    /**
+     * 移除当前线程的缓冲区
+     */
+    static void clear() {
+        LOCAL.remove();
+    }
+
+    @Override
+    public void write(int c) {
+        sb.append((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        sb.append(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        sb.append(str, off, off + len);
+    }
+
+    @Override
+    public Writer append(CharSequence csq) {
+        sb.append(csq);
+        return this;
+    }
+
+    @Override
+    public Writer append(CharSequence csq, int start, int end) {
+        sb.append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public Writer append(char c) {
+        sb.append(c);
+        return this;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package ntf.mybatis;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * mysql json列的查询条件，对应 @Criteria.JsonContains / JsonOverlaps / MemberOf
+ * mybatis生成的criterion只能把值放在条件末尾，无法表达 JSON_CONTAINS(col, ?) 这样的函数调用，
+ * 因此把值以十六进制字面量内联到条件中（只含0-9A-F，不存在注入，与sql_mode无关），
+ * 通过Criteria的 addCriterion(String) 添加
+ * 值为常量表达式，可以使用多值索引（mysql 8.0.17+）
+ */
+public final class JsonConditions {
+
+    private static final MethodType ADD_CRITERION = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    // criteria类 -> addCriterion(String)
+    private static final ClassValue<MethodHandle> ADDERS = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            Method method = addCriterionMethod(type);
+            if (method == null)
+                throw new IllegalArgumentException("未找到addCriterion(String)方法：" + type.getName());
+            try {
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method).asType(ADD_CRITERION);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+    };
+
+    private JsonConditions() {
+    }
+
+    /**
+     * JSON_CONTAINS(column, value)，列中的json包含value（集合则为包含全部元素）
+     */
+    public static String contains(String column, Object value) {
+        return "JSON_CONTAINS(" + column + ", " + json(value) + ")";
+    }
+
+    /**
+     * JSON_OVERLAPS(column, value)，列中的json数组与value至少有一个相同元素
+     */
+    public static String overlaps(String column, Object value) {
+        return "JSON_OVERLAPS(" + column + ", " + json(value) + ")";
+    }
+
+    /**
+     * value MEMBER OF(column)，value是列中json数组的元素
+     */
+    public static String memberOf(String column, Object value) {
+        return scalar(value) + " MEMBER OF(" + column + ")";
+    }
+
+    /**
+     * 调用criteria（mybatis生成的GeneratedCriteria）的protected方法 addCriterion(String)
+     */
+    public static void addCriterion(Object criteria, String condition) {
+        try {
+            ADDERS.get(criteria.getClass()).invokeExact(criteria, (Object) condition);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 驼峰转下划线，作为未指定column时的列名，如 custTags -> cust_tags
+     */
+    public static String column(String property) {
+        StringBuilder sb = new StringBuilder(property.length() + 4);
+        for (int i = 0; i < property.length(); i++) {
+            char c = property.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0)
+                    sb.append('_');
+                sb.append(Character.toLowerCase(c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    static Method addCriterionMethod(Class<?> criteriaClass) {
+        for (Class<?> c = criteriaClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredMethod("addCriterion", String.class);
+            } catch (NoSuchMethodException e) {
+                // 继续查找父类
+            }
+        }
+        return null;
+    }
+
+    private static String json(Object value) {
+        return "CAST(" + text(GsonCodec.DEFAULT_GSON.toJson(value)) + " AS JSON)";
+    }
+
+    private static String scalar(Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof BigInteger || value instanceof BigDecimal)
+            return value.toString();
+        if ((value instanceof Double || value instanceof Float) && !Double.isInfinite(((Number) value).doubleValue())
+                && !Double.isNaN(((Number) value).doubleValue()))
+            return value.toString();
+        if (value instanceof Boolean)
+            return "CAST(" + text(value.toString()) + " AS JSON)";
+        return text(String.valueOf(value));
+    }
+
+    private static String text(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        StringBuilder sb = new StringBuilder(bytes.length * 2 + 24).append("CONVERT(X'");
+        for (byte b : bytes)
+            sb.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        return sb.append("' USING utf8mb4)").toString();
+    }
+}
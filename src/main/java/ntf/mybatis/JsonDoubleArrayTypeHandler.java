@@ -0,0 +1,42 @@
+package ntf.mybatis;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * json数组列与{@code double[]}的转换，如 [1,2,3]，不经过装箱
+ * 适合大量行的id列表等场景，可以代替 JsonListTypeHandler<Double>
+ */
+public class JsonDoubleArrayTypeHandler extends BaseTypeHandler<double[]> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, double[] parameter, JdbcType jdbcType) throws SQLException {
+        ps.setString(i, JsonNumbers.toJson(parameter));
+    }
+
+    @Override
+    public double[] getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return this.toArray(rs.getString(columnName));
+    }
+
+    @Override
+    public double[] getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return this.toArray(rs.getString(columnIndex));
+    }
+
+    @Override
+    public double[] getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return this.toArray(cs.getString(columnIndex));
+    }
+
+    private double[] toArray(String content) {
+        if (content == null || content.isEmpty())
+            return null;
+        return JsonNumbers.parseDoubles(content);
+    }
+}
@@ -0,0 +1,42 @@
+package ntf.mybatis;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * json数组列与{@code int[]}的转换，如 [1,2,3]，不经过装箱
+ * 适合大量行的id列表等场景，可以代替 JsonListTypeHandler<Integer>
+ */
+public class JsonIntArrayTypeHandler extends BaseTypeHandler<int[]> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, int[] parameter, JdbcType jdbcType) throws SQLException {
+        ps.setString(i, JsonNumbers.toJson(parameter));
+    }
+
+    @Override
+    public int[] getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return this.toArray(rs.getString(columnName));
+    }
+
+    @Override
+    public int[] getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return this.toArray(rs.getString(columnIndex));
+    }
+
+    @Override
+    public int[] getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return this.toArray(cs.getString(columnIndex));
+    }
+
+    private int[] toArray(String content) {
+        if (content == null || content.isEmpty())
+            return null;
+        return JsonNumbers.parseInts(content);
+    }
+}
@@ -0,0 +1,37 @@
+package ntf.mybatis;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * JsonListTypeHandler 使用的json引擎
+ * 每个元素类型只解析一次{@link ListAdapter}，之后的读写都复用
+ */
+public interface JsonListCodec {
+
+    JsonListCodec GSON = new GsonCodec();
+
+    JsonListCodec FASTJSON = new FastjsonCodec();
+
+    JsonListCodec STREAMING = new StreamingCodec();
+
+    <T> ListAdapter<T> adapter(Class<T> clazz);
+
+    /**
+     * 已绑定元素类型的List读写
+     */
+    interface ListAdapter<T> {
+
+        String toJson(List<T> list);
+
+        /**
+         * 写入到out，默认先生成字符串再写入
+         */
+        default void write(List<T> list, Writer out) throws IOException {
+            out.write(toJson(list));
+        }
+
+        List<T> fromJson(String json);
+    }
+}
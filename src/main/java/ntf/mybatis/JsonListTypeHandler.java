@@ -2,15 +2,27 @@ package ntf.mybatis;
 
 import com.alibaba.fastjson.util.ParameterizedTypeImpl;
 import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.internal.bind.ReflectiveTypeAdapterFactory;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import ntf.core.GenericTypeIdentified;
 import org.apache.ibatis.type.BaseTypeHandler;
 import org.apache.ibatis.type.JdbcType;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
 import java.lang.reflect.Type;
 import java.sql.CallableStatement;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 
@@ -18,43 +30,110 @@ public abstract class JsonListTypeHandler<T>
         extends BaseTypeHandler<List<T>>
         implements GenericTypeIdentified<T> {
 
-	protected Gson gson = new Gson();
+	protected Gson gson = GsonCodec.DEFAULT_GSON;
+
+    /**
+     * json引擎，为null时使用gson与{@link #getActualListTypeToken()}
+     * 不能与streaming同时使用
+     */
+    protected JsonListCodec codec;
 
     protected Class<T> clazz = getGenericTypeClass();
 
+    /**
+     * 流式读写，适用于较大的json列（如MEDIUMTEXT）
+     * 读取时通过getCharacterStream逐个元素解析，不生成整列的中间字符串；
+     * 写入时通过setCharacterStream边序列化边写出
+     * 驱动读取Reader时才序列化元素（BATCH模式下在executeBatch时），列表在设置参数时复制一份，
+     * 但元素本身不复制：BATCH模式下addBatch之后不要再修改元素对象，否则写入的是修改后的内容
+     * 逐个元素通过gson读写，与非流式的List&lt;T&gt;一样按元素的运行时类型序列化；不能与codec同时使用
+     */
+    protected boolean streaming = false;
+
+    /**
+     * 读取时返回{@link LazyJsonList}，第一次访问时才解析，优先于streaming
+     * 未访问过的LazyJsonList写回时直接使用原始内容
+     */
+    protected boolean lazy = false;
+
+    /**
+     * 只解析元素的部分字段，其余字段在token层面跳过，优先于codec
+     * 解析出的元素缺少其余字段，不要再写回数据库
+     * 也可以直接使用只包含所需字段的轻量类作为T
+     */
+    protected JsonProjection projection;
+
+    // 处理器是共享的，第一次读写时解析，可能被多个线程同时解析，结果相同
+    private volatile TypeAdapter<T> adapter;
+
+    private volatile JsonListCodec.ListAdapter<T> listAdapter;
+
     @Override
     public void setNonNullParameter(PreparedStatement ps, int i, List<T> parameter, JdbcType jdbcType) throws SQLException {
-        ps.setString(i, this.toJson(parameter));
+        Object raw = LazyJsonList.raw(parameter);
+        if (raw instanceof String)
+            ps.setString(i, (String) raw);
+        else if (streaming)
+            ps.setCharacterStream(i, new JsonListReader(parameter));
+        else
+            ps.setString(i, this.toJson(parameter));
     }
 
     @Override
     public List<T> getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        if (lazy)
+            return this.toLazyObject(rs.getString(columnName));
+        if (streaming)
+            return this.toObject(rs.getCharacterStream(columnName));
         return this.toObject(rs.getString(columnName));
     }
 
     @Override
     public List<T> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        if (lazy)
+            return this.toLazyObject(rs.getString(columnIndex));
+        if (streaming)
+            return this.toObject(rs.getCharacterStream(columnIndex));
         return this.toObject(rs.getString(columnIndex));
     }
 
     @Override
     public List<T> getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        if (lazy)
+            return this.toLazyObject(cs.getString(columnIndex));
+        if (streaming)
+            return this.toObject(cs.getCharacterStream(columnIndex));
         return this.toObject(cs.getString(columnIndex));
     }
 
+    /**
+     * 移除当前线程复用的序列化缓冲区，如长期存活的线程执行完一批大量写入之后
+     * 缓冲区只是StringBuilder，不调用也不会泄漏ClassLoader
+     */
+    public static void clearThreadBuffer() {
+        JsonBuffer.clear();
+    }
+
     private String toJson(List<T> object) {
+        // 序列化到线程内复用的缓冲区，只分配最终的字符串
+        // 不复用缓冲区直接setCharacterStream：BATCH模式下驱动在executeBatch时才读取
+        JsonBuffer buffer = JsonBuffer.acquire();
         try {
-            return gson.toJson(object);
+            listAdapter().write(object, buffer);
+            return buffer.toString();
         } catch (Exception e) {
             throw new RuntimeException(e);
+        } finally {
+            buffer.release();
         }
     }
 
-    @SuppressWarnings("unchecked")
-	private List<T> toObject(String content) {
+	protected List<T> toObject(String content) {
+        if (projection != null)
+            return content == null || content.isEmpty() ? null : this.toObject(new StringReader(content));
         if (content != null && !content.isEmpty()) {
             try {
-                return (List<T>) gson.fromJson(content, getActualListTypeToken());
+                return listAdapter().fromJson(content);
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
@@ -63,6 +142,75 @@ public abstract class JsonListTypeHandler<T>
         }
     }
 
+    private List<T> toLazyObject(String content) {
+        if (content == null || content.isEmpty())
+            return null;
+        return new LazyJsonList<>(content, this::toObject);
+    }
+
+    private List<T> toObject(Reader content) {
+        if (projection == null)
+            checkStreaming();
+        if (content == null)
+            return null;
+        try (JsonReader in = gson.newJsonReader(content)) {
+            in.setLenient(true);
+            JsonToken token;
+            try {
+                token = in.peek();
+            } catch (EOFException e) { // 空字符串
+                return null;
+            }
+            if (token == JsonToken.NULL)
+                return null;
+            List<T> list = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext())
+                list.add(projection == null ? adapter().read(in) : adapter().fromJsonTree(projection.read(in)));
+            in.endArray();
+            return list;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 第一次读写时解析，之后复用
+     */
+    protected JsonListCodec.ListAdapter<T> listAdapter() {
+        JsonListCodec.ListAdapter<T> a = listAdapter;
+        if (a == null)
+            listAdapter = a = codec != null ? codec.adapter(clazz) : new GsonCodec(gson).adapter(getActualListTypeToken());
+        return a;
+    }
+
+    protected TypeAdapter<T> adapter() {
+        TypeAdapter<T> a = adapter;
+        if (a == null)
+            adapter = a = gson.getAdapter(clazz);
+        return a;
+    }
+
+    /**
+     * 写入元素时按运行时类型选择adapter，与gson序列化List&lt;T&gt;的规则一致：
+     * 运行时类型只有反射生成的adapter，而T注册了自定义adapter时，仍使用T的
+     */
+    @SuppressWarnings("unchecked")
+    protected TypeAdapter<T> adapter(T value) {
+        TypeAdapter<T> declared = adapter();
+        if (value == null || value.getClass() == clazz)
+            return declared;
+        TypeAdapter<T> runtime = (TypeAdapter<T>) gson.getAdapter(value.getClass());
+        if (runtime instanceof ReflectiveTypeAdapterFactory.Adapter && !(declared instanceof ReflectiveTypeAdapterFactory.Adapter))
+            return declared;
+        return runtime;
+    }
+
+    private void checkStreaming() {
+        if (codec != null)
+            throw new IllegalStateException(getClass().getName() + ": streaming不能与codec同时使用");
+    }
+
 
     protected Type getActualListTypeToken() {
         // 伪造一个List<T> 并注入
@@ -70,5 +218,74 @@ public abstract class JsonListTypeHandler<T>
 
     }
 
+    /**
+     * 按需序列化的Reader，每次只序列化一个元素
+     */
+    private final class JsonListReader extends Reader {
+
+        private final Iterator<T> elements;
+        private final StringBuilder chunk = new StringBuilder();
+        private final JsonWriter writer;
+        private int pos;
+        private boolean done;
+
+        private JsonListReader(List<T> list) {
+            checkStreaming();
+            // 复制列表，调用方之后清空或复用列表不影响写入的内容
+            elements = new ArrayList<>(list).iterator();
+            try {
+                writer = gson.newJsonWriter(new Writer() {
+                    @Override
+                    public void write(char[] cbuf, int off, int len) {
+                        chunk.append(cbuf, off, len);
+                    }
+
+                    @Override
+                    public void write(String str, int off, int len) {
+                        chunk.append(str, off, off + len);
+                    }
+
+                    @Override
+                    public void flush() {
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                });
+                writer.beginArray();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (len == 0)
+                return 0;
+            while (pos == chunk.length()) {
+                if (done)
+                    return -1;
+                chunk.setLength(0);
+                pos = 0;
+                if (elements.hasNext()) {
+                    T element = elements.next();
+                    adapter(element).write(writer, element);
+                } else {
+                    writer.endArray();
+                    writer.flush();
+                    done = true;
+                }
+            }
+            int n = Math.min(len, chunk.length() - pos);
+            chunk.getChars(pos, pos + n, cbuf, off);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 
 }
@@ -0,0 +1,262 @@
+package ntf.mybatis;
+
+/**
+ * json数字数组与基本类型数组的互相转换，不经过装箱，解析时每个元素不产生对象
+ * 只接受形如 [1, -2, 3] 的数组，null 返回 null
+ */
+final class JsonNumbers {
+
+    // 10^0 ~ 10^22 都可以用double精确表示
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++)
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    private JsonNumbers() {
+    }
+
+    static String toJson(long[] values) {
+        StringBuilder sb = new StringBuilder(values.length * 8 + 2).append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(values[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    static String toJson(int[] values) {
+        StringBuilder sb = new StringBuilder(values.length * 4 + 2).append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(values[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    static String toJson(double[] values) {
+        StringBuilder sb = new StringBuilder(values.length * 8 + 2).append('[');
+        for (int i = 0; i < values.length; i++) {
+            double v = values[i];
+            if (Double.isNaN(v) || Double.isInfinite(v))
+                throw new IllegalArgumentException("json不支持的数字: " + v);
+            if (i > 0)
+                sb.append(',');
+            sb.append(v);
+        }
+        return sb.append(']').toString();
+    }
+
+    static long[] parseLongs(String json) {
+        Cursor c = new Cursor(json);
+        int size = c.begin();
+        if (size < 0)
+            return null;
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++)
+            values[i] = c.nextLong();
+        c.end();
+        return values;
+    }
+
+    static int[] parseInts(String json) {
+        Cursor c = new Cursor(json);
+        int size = c.begin();
+        if (size < 0)
+            return null;
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            long v = c.nextLong();
+            if (v != (int) v)
+                throw c.error("超出int范围");
+            values[i] = (int) v;
+        }
+        c.end();
+        return values;
+    }
+
+    static double[] parseDoubles(String json) {
+        Cursor c = new Cursor(json);
+        int size = c.begin();
+        if (size < 0)
+            return null;
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++)
+            values[i] = c.nextDouble();
+        c.end();
+        return values;
+    }
+
+    private static final class Cursor {
+
+        private final String s;
+        private int pos;
+
+        private Cursor(String s) {
+            this.s = s;
+        }
+
+        /**
+         * 读取到 [ 之后，返回元素个数，null 返回-1
+         * 数字数组中不会出现字符串，元素个数即逗号个数+1
+         */
+        int begin() {
+            skipWhitespace();
+            if (s.startsWith("null", pos)) {
+                pos += 4;
+                skipWhitespace();
+                if (pos != s.length())
+                    throw error("多余的内容");
+                return -1;
+            }
+            expect('[');
+            skipWhitespace();
+            if (pos < s.length() && s.charAt(pos) == ']')
+                return 0;
+            int size = 1;
+            for (int i = pos; i < s.length(); i++)
+                if (s.charAt(i) == ',')
+                    size++;
+            return size;
+        }
+
+        void end() {
+            skipWhitespace();
+            expect(']');
+            skipWhitespace();
+            if (pos != s.length())
+                throw error("多余的内容");
+        }
+
+        long nextLong() {
+            int start = beforeValue();
+            boolean negative = consume('-');
+            int digitsStart = pos;
+            long v = 0;
+            while (pos < s.length()) {
+                int d = s.charAt(pos) - '0';
+                if (d < 0 || d > 9)
+                    break;
+                // 以负数累加，可以表示Long.MIN_VALUE
+                if (v < (Long.MIN_VALUE + d) / 10)
+                    throw error("超出long范围");
+                v = v * 10 - d;
+                pos++;
+            }
+            if (pos == digitsStart)
+                throw error("不是数字");
+            if (pos < s.length() && (s.charAt(pos) == '.' || s.charAt(pos) == 'e' || s.charAt(pos) == 'E')) {
+                // 1.0、1e3 这类整数值
+                pos = skipNumber(start);
+                double d = Double.parseDouble(s.substring(start, pos));
+                if (d != Math.rint(d) || Math.abs(d) >= 0x1p63)
+                    throw error("不是整数");
+                afterValue();
+                return (long) d;
+            }
+            if (!negative && v == Long.MIN_VALUE)
+                throw error("超出long范围");
+            afterValue();
+            return negative ? v : -v;
+        }
+
+        double nextDouble() {
+            int start = beforeValue();
+            boolean negative = consume('-');
+            long mantissa = 0;
+            int digits = 0;
+            int scale = 0;
+            boolean simple = true;
+            int digitsStart = pos;
+            while (pos < s.length() && isDigit(s.charAt(pos))) {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (s.charAt(pos) - '0');
+                    if (mantissa != 0)
+                        digits++;
+                } else {
+                    simple = false;
+                }
+                pos++;
+            }
+            if (pos == digitsStart)
+                throw error("不是数字");
+            if (consume('.')) {
+                while (pos < s.length() && isDigit(s.charAt(pos))) {
+                    if (digits < 18) {
+                        mantissa = mantissa * 10 + (s.charAt(pos) - '0');
+                        if (mantissa != 0)
+                            digits++;
+                        scale++;
+                    } else {
+                        simple = false;
+                    }
+                    pos++;
+                }
+            }
+            if (pos < s.length() && (s.charAt(pos) == 'e' || s.charAt(pos) == 'E'))
+                simple = false;
+            double v;
+            // 尾数与10的幂都能精确表示时，一次除法即是正确舍入的结果
+            if (simple && mantissa < (1L << 53) && scale < POWERS_OF_TEN.length) {
+                v = mantissa / POWERS_OF_TEN[scale];
+            } else {
+                pos = skipNumber(start);
+                v = Math.abs(Double.parseDouble(s.substring(start, pos)));
+            }
+            afterValue();
+            return negative ? -v : v;
+        }
+
+        private int beforeValue() {
+            skipWhitespace();
+            return pos;
+        }
+
+        private void afterValue() {
+            skipWhitespace();
+            if (pos < s.length() && s.charAt(pos) == ',')
+                pos++;
+        }
+
+        private int skipNumber(int from) {
+            int i = from;
+            while (i < s.length()) {
+                char ch = s.charAt(i);
+                if (!isDigit(ch) && ch != '-' && ch != '+' && ch != '.' && ch != 'e' && ch != 'E')
+                    break;
+                i++;
+            }
+            return i;
+        }
+
+        private boolean consume(char ch) {
+            if (pos < s.length() && s.charAt(pos) == ch) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char ch) {
+            if (!consume(ch))
+                throw error("应为 " + ch);
+        }
+
+        private void skipWhitespace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos)))
+                pos++;
+        }
+
+        private static boolean isDigit(char ch) {
+            return ch >= '0' && ch <= '9';
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + "，位置 " + pos + ": " + s);
+        }
+    }
+}
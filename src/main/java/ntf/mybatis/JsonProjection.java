@@ -0,0 +1,108 @@
+package ntf.mybatis;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 只读取指定字段路径的投影，如 "id"、"sku.code"
+ * 不在路径中的字段在token层面直接跳过，不会生成任何对象；路径经过数组时作用于每个元素
+ */
+public final class JsonProjection {
+
+    private static final TypeAdapter<JsonElement> ELEMENT = GsonCodec.DEFAULT_GSON.getAdapter(JsonElement.class);
+
+    // 保留整个子树的节点
+    private static final JsonProjection ALL = new JsonProjection(null, null);
+
+    // null表示保留整个子树；构建后不再修改，可被多个TypeHandler、多个线程共用
+    private final Map<String, JsonProjection> children;
+
+    private final String paths;
+
+    private JsonProjection(Map<String, JsonProjection> children, String paths) {
+        this.children = children;
+        this.paths = paths;
+    }
+
+    public static JsonProjection of(String... paths) {
+        Node root = new Node();
+        for (String path : paths) {
+            Node node = root;
+            for (String name : path.split("\\.")) {
+                node = node.children.computeIfAbsent(name, k -> new Node());
+                if (node.children == null) // 父路径已保留整个子树
+                    break;
+            }
+            node.children = null;
+        }
+        return root.build(Arrays.toString(paths));
+    }
+
+    /**
+     * 读取一个值，只保留投影中的字段
+     */
+    public JsonElement read(JsonReader in) throws IOException {
+        if (children == null)
+            return ELEMENT.read(in);
+        switch (in.peek()) {
+            case BEGIN_OBJECT:
+                JsonObject object = new JsonObject();
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    JsonProjection child = children.get(name);
+                    if (child == null)
+                        in.skipValue();
+                    else
+                        object.add(name, child.read(in));
+                }
+                in.endObject();
+                return object;
+            case BEGIN_ARRAY:
+                JsonArray array = new JsonArray();
+                in.beginArray();
+                while (in.hasNext())
+                    array.add(read(in));
+                in.endArray();
+                return array;
+            case NULL:
+                in.nextNull();
+                return JsonNull.INSTANCE;
+            default:
+                // 期望对象却是基本类型，原样保留
+                return ELEMENT.read(in);
+        }
+    }
+
+    /**
+     * 构建时使用的可变节点
+     */
+    private static final class Node {
+
+        private Map<String, Node> children = new HashMap<>();
+
+        private JsonProjection build(String paths) {
+            if (children == null)
+                return ALL;
+            Map<String, JsonProjection> built = new HashMap<>(children.size() * 2);
+            for (Map.Entry<String, Node> e : children.entrySet())
+                built.put(e.getKey(), e.getValue().build(null));
+            return new JsonProjection(Collections.unmodifiableMap(built), paths);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JsonProjection" + paths;
+    }
+}
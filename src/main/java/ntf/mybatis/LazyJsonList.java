@@ -0,0 +1,66 @@
+package ntf.mybatis;
+
+import com.google.common.collect.ForwardingList;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 延迟解析的List，持有列的原始内容，第一次访问时才解析，且只解析一次
+ * 未被访问过时，写回数据库直接使用原始内容
+ * 序列化时（如放入session、分布式缓存）先解析，写出的是普通的ArrayList
+ */
+public final class LazyJsonList<T> extends ForwardingList<T> implements Serializable {
+
+    private volatile Object raw;
+
+    private Supplier<List<T>> loader;
+
+    private volatile List<T> delegate;
+
+    <R> LazyJsonList(R raw, Function<? super R, List<T>> parser) {
+        this.raw = raw;
+        this.loader = () -> parser.apply(raw);
+    }
+
+    /**
+     * 是否已经解析
+     */
+    public boolean isLoaded() {
+        return delegate != null;
+    }
+
+    @Override
+    protected List<T> delegate() {
+        List<T> list = delegate;
+        if (list == null) {
+            synchronized (this) {
+                list = delegate;
+                if (list == null) {
+                    list = loader.get();
+                    if (list == null)
+                        list = new ArrayList<>();
+                    // 解析后可能被修改，不再使用原始内容
+                    raw = null;
+                    loader = null;
+                    delegate = list;
+                }
+            }
+        }
+        return list;
+    }
+
+    private Object writeReplace() {
+        return new ArrayList<>(delegate());
+    }
+
+    /**
+     * 未解析过的LazyJsonList返回原始内容，否则返回null
+     */
+    static Object raw(List<?> list) {
+        return list instanceof LazyJsonList ? ((LazyJsonList<?>) list).raw : null;
+    }
+}
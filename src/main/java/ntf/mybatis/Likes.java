@@ -0,0 +1,55 @@
+package ntf.mybatis;
+
+/**
+ * 生成LIKE的匹配值
+ * 转义使用mysql默认的转义符 \
+ */
+public final class Likes {
+
+    private Likes() {
+    }
+
+    /**
+     * %value%
+     */
+    public static String contains(Object value, boolean escape) {
+        return "%" + text(value, escape) + "%";
+    }
+
+    /**
+     * value%，可以使用索引
+     */
+    public static String startsWith(Object value, boolean escape) {
+        return text(value, escape) + "%";
+    }
+
+    /**
+     * %value
+     */
+    public static String endsWith(Object value, boolean escape) {
+        return "%" + text(value, escape);
+    }
+
+    /**
+     * 转义 \ % _
+     */
+    public static String escape(String value) {
+        StringBuilder sb = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '%' || c == '_') {
+                if (sb == null)
+                    sb = new StringBuilder(value.length() + 8).append(value, 0, i);
+                sb.append('\\');
+            }
+            if (sb != null)
+                sb.append(c);
+        }
+        return sb == null ? value : sb.toString();
+    }
+
+    private static String text(Object value, boolean escape) {
+        String s = String.valueOf(value);
+        return escape ? escape(s) : s;
+    }
+}
@@ -0,0 +1,119 @@
+package ntf.mybatis;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.*;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * insert/update/delete 执行后失效{@link QueryResultCache}中对应表的缓存
+ * 非自动提交时，事务结束（commit/rollback/close中最先发生的一个）再失效一次事务中改过的表，
+ * 避免提交前其他线程读到旧数据又写回缓存
+ * 只识别单表的insert/replace/update/delete，多表update/delete等无法确定表名的sql失效全部缓存
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "commit", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "rollback", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "close", args = {boolean.class})
+})
+public class QueryCacheInterceptor implements Interceptor {
+
+    private static final String NAME = "([`\\w.]+)";
+
+    // 表名之后可以有别名，但不能是关键字
+    private static final String ALIAS = "(?:\\s+(?:as\\s+)?(?!(?:set|where|order|limit|partition|using|join|inner|left|right|straight_join)\\b)\\w+)?";
+
+    private static final Pattern[] SINGLE_TABLE = {
+            Pattern.compile("^\\s*(?:insert|replace)(?:\\s+(?:low_priority|delayed|high_priority|ignore))*\\s+into\\s+" + NAME
+                    + "(?=[\\s(]|$)", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("^\\s*update(?:\\s+(?:low_priority|ignore))*\\s+" + NAME + ALIAS + "\\s+set\\b",
+                    Pattern.CASE_INSENSITIVE),
+            Pattern.compile("^\\s*delete(?:\\s+(?:low_priority|quick|ignore))*\\s+from\\s+" + NAME + ALIAS
+                    + "\\s*(?:$|where\\b|order\\b|limit\\b|partition\\b)", Pattern.CASE_INSENSITIVE)
+    };
+
+    // 无法识别表名
+    private static final String ALL = "*";
+
+    private final QueryResultCache cache;
+
+    // statement id -> 表名
+    private final Map<String, String> tablesByStatement = new ConcurrentHashMap<>();
+
+    // 非自动提交的executor(即SqlSession) -> 事务中修改过的表
+    // 弱引用，没有commit/rollback/close就被丢弃的executor不会一直占用
+    private final Map<Executor, Set<String>> dirtyTables = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public QueryCacheInterceptor(QueryResultCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Executor executor = (Executor) invocation.getTarget();
+        if ("update".equals(invocation.getMethod().getName())) {
+            Object[] args = invocation.getArgs();
+            MappedStatement ms = (MappedStatement) args[0];
+            String table = tablesByStatement.computeIfAbsent(ms.getId(), id -> tableOf(ms.getBoundSql(args[1]).getSql()));
+            try {
+                return invocation.proceed();
+            } finally {
+                invalidate(table);
+                if (!autoCommit(executor)) {
+                    synchronized (dirtyTables) {
+                        dirtyTables.computeIfAbsent(executor, k -> new HashSet<>()).add(table);
+                    }
+                }
+            }
+        }
+        try {
+            return invocation.proceed();
+        } finally {
+            Set<String> tables = dirtyTables.remove(executor);
+            if (tables != null)
+                tables.forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public Object plugin(Object target) {
+        return target instanceof Executor ? Plugin.wrap(target, this) : target;
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+
+    }
+
+    private void invalidate(String table) {
+        cache.invalidate(ALL.equals(table) ? null : table);
+    }
+
+    private static boolean autoCommit(Executor executor) {
+        try {
+            return executor.getTransaction().getConnection().getAutoCommit();
+        } catch (SQLException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    static String tableOf(String sql) {
+        for (Pattern pattern : SINGLE_TABLE) {
+            Matcher m = pattern.matcher(sql);
+            if (m.find())
+                return QueryResultCache.normalize(m.group(1));
+        }
+        return ALL;
+    }
+}
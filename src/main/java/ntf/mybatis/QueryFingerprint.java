@@ -0,0 +1,42 @@
+package ntf.mybatis;
+
+import java.util.Arrays;
+
+/**
+ * 查询条件的指纹，由{@link Query2Criteria#fingerprint(Object)}生成
+ * 包含Query的所有可读属性（包括 @Criteria.Except 和继承的属性，如分页参数）；
+ * IN/NOT IN 的列表与顺序、重复元素无关
+ * 可用作查询结果缓存的key
+ */
+public final class QueryFingerprint {
+
+    private final CriteriaPlan plan;
+    private final Object[] values;
+    private final int hash;
+
+    QueryFingerprint(CriteriaPlan plan, Object[] values) {
+        this.plan = plan;
+        this.values = values;
+        this.hash = 31 * System.identityHashCode(plan) + Arrays.hashCode(values);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof QueryFingerprint))
+            return false;
+        QueryFingerprint other = (QueryFingerprint) obj;
+        return hash == other.hash && plan == other.plan && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return plan.describe(values);
+    }
+}
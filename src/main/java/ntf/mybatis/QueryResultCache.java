@@ -0,0 +1,144 @@
+package ntf.mybatis;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 查询结果缓存，按表分区，key为{@link QueryFingerprint}
+ * 每个表的缓存按数量和写入后的存活时间淘汰，同一个key并发时只加载一次
+ * 配合{@link QueryCacheInterceptor}在表发生insert/update/delete时失效该表的所有缓存
+ * 例：
+ *  List<Cust> custs = cache.get("cust", query, q2c,
+ *          () -> q2c.select(query, CustExample::new, CustExample::or, custMapper::selectByExample));
+ * 缓存的结果会被多个调用方共享，调用方不应修改返回的对象
+ */
+public class QueryResultCache {
+
+    private final long maximumSize;
+    private final long ttl;
+    private final TimeUnit unit;
+
+    private final ConcurrentMap<String, Region> regions = new ConcurrentHashMap<>();
+
+    /**
+     * @param maximumSize 每个表最多缓存的查询个数
+     * @param ttl 写入后的存活时间
+     */
+    public QueryResultCache(long maximumSize, long ttl, TimeUnit unit) {
+        this.maximumSize = maximumSize;
+        this.ttl = ttl;
+        this.unit = unit;
+    }
+
+    public <Q, R> R get(String table, Q query, Query2Criteria<Q, ?> converter, Supplier<R> loader) {
+        return get(table, converter.fingerprint(query), loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R> R get(String table, Object key, Supplier<R> loader) {
+        Region region = regions.computeIfAbsent(normalize(table), t -> new Region());
+        // 加载开始前取代次，加载期间表被修改时结果落在旧代次上，不会被之后的查询读到
+        Key k = new Key(region.generation.get(), key);
+        try {
+            return (R) region.cache.get(k, () -> Optional.ofNullable(loader.get())).orElse(null);
+        } catch (UncheckedExecutionException | ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * 失效某个表的所有缓存，table为null时失效全部
+     */
+    public void invalidate(String table) {
+        if (table == null) {
+            invalidateAll();
+            return;
+        }
+        Region region = regions.get(normalize(table));
+        if (region != null)
+            region.invalidate();
+    }
+
+    public void invalidateAll() {
+        regions.values().forEach(Region::invalidate);
+    }
+
+    /**
+     * 所有表汇总的命中/未命中/淘汰次数
+     */
+    public CacheStats stats() {
+        CacheStats stats = new CacheStats(0, 0, 0, 0, 0, 0);
+        for (Region region : regions.values())
+            stats = stats.plus(region.cache.stats());
+        return stats;
+    }
+
+    public CacheStats stats(String table) {
+        Region region = regions.get(normalize(table));
+        return region == null ? new CacheStats(0, 0, 0, 0, 0, 0) : region.cache.stats();
+    }
+
+    /**
+     * 表名统一为小写，去掉库名和反引号
+     */
+    static String normalize(String table) {
+        String t = table.replace("`", "").trim().toLowerCase(Locale.ROOT);
+        int dot = t.lastIndexOf('.');
+        return dot < 0 ? t : t.substring(dot + 1);
+    }
+
+    private final class Region {
+
+        private final Cache<Key, Optional<Object>> cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl, unit)
+                .recordStats()
+                .build();
+
+        private final AtomicLong generation = new AtomicLong();
+
+        private void invalidate() {
+            generation.incrementAndGet();
+            cache.invalidateAll();
+        }
+    }
+
+    private static final class Key {
+
+        private final long generation;
+        private final Object fingerprint;
+
+        private Key(long generation, Object fingerprint) {
+            this.generation = generation;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return generation == other.generation && fingerprint.equals(other.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(generation) + fingerprint.hashCode();
+        }
+    }
+}
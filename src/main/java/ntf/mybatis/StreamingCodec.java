@@ -0,0 +1,97 @@
+package ntf.mybatis;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 直接使用元素的TypeAdapter逐个读写，不经过gson的集合TypeAdapter
+ * 元素按声明的类型序列化，子类特有的字段不会写出
+ */
+public class StreamingCodec implements JsonListCodec {
+
+    private final Gson gson;
+
+    private final ConcurrentMap<Class<?>, ListAdapter<?>> adapters = new ConcurrentHashMap<>();
+
+    public StreamingCodec() {
+        this(GsonCodec.DEFAULT_GSON);
+    }
+
+    public StreamingCodec(Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> ListAdapter<T> adapter(Class<T> clazz) {
+        return (ListAdapter<T>) adapters.computeIfAbsent(clazz, c -> new Adapter<>(gson.getAdapter(c)));
+    }
+
+    private final class Adapter<T> implements ListAdapter<T> {
+
+        private final TypeAdapter<T> element;
+
+        private Adapter(TypeAdapter<T> element) {
+            this.element = element;
+        }
+
+        @Override
+        public String toJson(List<T> list) {
+            StringWriter out = new StringWriter(list.size() * 32 + 2);
+            try {
+                write(list, out);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return out.toString();
+        }
+
+        @Override
+        public void write(List<T> list, Writer out) throws IOException {
+            JsonWriter writer = gson.newJsonWriter(out);
+            writer.setLenient(true);
+            writer.beginArray();
+            for (T t : list)
+                element.write(writer, t);
+            writer.endArray();
+            writer.flush();
+        }
+
+        @Override
+        public List<T> fromJson(String json) {
+            try {
+                JsonReader reader = gson.newJsonReader(new StringReader(json));
+                reader.setLenient(true);
+                JsonToken token;
+                try {
+                    token = reader.peek();
+                } catch (EOFException e) { // 只有空白
+                    return null;
+                }
+                if (token == JsonToken.NULL)
+                    return null;
+                List<T> list = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext())
+                    list.add(element.read(reader));
+                reader.endArray();
+                return list;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
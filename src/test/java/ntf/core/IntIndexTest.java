@@ -0,0 +1,103 @@
+package ntf.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class IntIndexTest {
+
+    @Test
+    public void matchesHashMap() {
+        Random random = new Random(42);
+        IntIndex<String> index = new IntIndex<>();
+        Map<Integer, String> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            // 随机key、小范围key（制造覆盖）、0与极值
+            int key = i % 3 == 0 ? random.nextInt() : random.nextInt(2000) - 1000;
+            if (i % 1000 == 0)
+                key = 0;
+            String value = i % 7 == 0 ? null : "v" + i;
+            assertEquals(expected.put(key, value), index.put(key, value));
+            assertEquals(expected.size(), index.size());
+        }
+        for (int key : new int[]{Integer.MIN_VALUE, Integer.MAX_VALUE}) {
+            assertEquals(expected.put(key, "extreme"), index.put(key, "extreme"));
+        }
+        assertSame(expected, index);
+
+        for (int i = 0; i < 20_000; i++) {
+            int key = i % 2 == 0 ? random.nextInt() : random.nextInt(2000) - 1000;
+            assertEquals(expected.get(key), index.get(key));
+            assertEquals(expected.containsKey(key), index.containsKey(key));
+            assertEquals(expected.getOrDefault(key, "default"), index.getOrDefault(key, "default"));
+        }
+    }
+
+    @Test
+    public void zeroKeyAndNullValue() {
+        IntIndex<String> index = new IntIndex<>();
+        assertTrue(index.isEmpty());
+        assertFalse(index.containsKey(0));
+        assertEquals("d", index.getOrDefault(0, "d"));
+
+        assertNull(index.put(0, null));
+        assertTrue(index.containsKey(0));
+        assertNull(index.getOrDefault(0, "d"));
+        assertEquals(1, index.size());
+
+        assertNull(index.put(0, "zero"));
+        assertEquals("zero", index.get(0));
+        assertEquals(1, index.size());
+
+        assertNull(index.put(-1, null));
+        assertTrue(index.containsKey(-1));
+        assertNull(index.getOrDefault(-1, "d"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void rehashKeepsEntries() {
+        IntIndex<Integer> index = new IntIndex<>(1);
+        Map<Integer, Integer> expected = new HashMap<>();
+        // 低位相同的key，检验散列与线性探测
+        for (int i = -5000; i < 5000; i++) {
+            int key = i * 1024;
+            index.put(key, key);
+            expected.put(key, key);
+        }
+        assertSame(expected, index);
+    }
+
+    @Test
+    public void ofLastDuplicateWins() {
+        List<String> items = Arrays.asList("a1", "b2", "c1", "d0");
+        IntIndex<String> index = IntIndex.of(items, s -> s.charAt(1) - '0');
+        assertEquals(3, index.size());
+        assertEquals("c1", index.get(1));
+        assertEquals("b2", index.get(2));
+        assertEquals("d0", index.get(0));
+        assertNull(index.get(3));
+    }
+
+    private static <T> void assertSame(Map<Integer, T> expected, IntIndex<T> index) {
+        assertEquals(expected.size(), index.size());
+        Map<Integer, T> visited = new HashMap<>();
+        List<Integer> keys = new ArrayList<>();
+        index.forEach((k, v) -> {
+            keys.add(k);
+            visited.put(k, v);
+        });
+        assertEquals(expected.size(), keys.size());
+        assertEquals(expected, visited);
+    }
+}
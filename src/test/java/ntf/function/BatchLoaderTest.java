@@ -0,0 +1,90 @@
+package ntf.function;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class BatchLoaderTest {
+
+    private final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+
+    private ScheduledThreadPoolExecutor scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private Map<Integer, String> query(List<Integer> keys) {
+        batches.add(new ArrayList<>(keys));
+        Map<Integer, String> values = new HashMap<>();
+        for (Integer key : keys)
+            values.put(key, "v" + key);
+        return values;
+    }
+
+    @Test
+    public void fullBatchCancelsItsTimer() throws Exception {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(this::query, 2, 1, TimeUnit.HOURS, Runnable::run, scheduler);
+        loader.load(1);
+        assertEquals(1, scheduler.getQueue().size());
+        CompletableFuture<String> second = loader.load(2);
+        assertEquals("v2", second.get(1, TimeUnit.SECONDS));
+        assertEquals(0, scheduler.getQueue().size());
+
+        // 新的一批有自己的计时，不会被上一批的计时提前查询
+        loader.load(3);
+        assertEquals(1, scheduler.getQueue().size());
+        assertEquals(1, batches.size());
+        loader.close();
+        assertEquals(2, batches.size());
+        assertEquals(0, scheduler.getQueue().size());
+        assertFalse(scheduler.isShutdown());
+    }
+
+    @Test
+    public void staleTimerDoesNotDispatchNextBatch() throws Exception {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(this::query, 0, 200, TimeUnit.MILLISECONDS, Runnable::run, scheduler);
+        loader.load(1);
+        Thread.sleep(100);
+        loader.dispatch();
+        loader.load(2);
+        // 第一批的计时在此期间到期
+        Thread.sleep(150);
+        loader.load(3);
+        assertEquals("v3", loader.load(3).get(1, TimeUnit.SECONDS));
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(1).size());
+    }
+
+    @Test
+    public void ownSchedulerIsClosed() throws Exception {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(this::query, 0, 10, TimeUnit.MILLISECONDS);
+        assertEquals("v1", loader.load(1).get(1, TimeUnit.SECONDS));
+        loader.close();
+        try {
+            loader.load(2);
+        } catch (IllegalStateException e) {
+            return;
+        }
+        throw new AssertionError("expected IllegalStateException");
+    }
+}
@@ -0,0 +1,155 @@
+package ntf.mybatis;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryJsonListTypeHandlerTest {
+
+    @Test
+    public void roundTrip() throws Exception {
+        ItemListTypeHandler handler = new ItemListTypeHandler();
+        List<Item> items = Arrays.asList(item(1), null, item(-2));
+        items.get(2).child = item(3);
+        items.get(2).name = null;
+
+        byte[] bytes = write(handler, items);
+        assertEquals(BinaryJson.MAGIC, bytes[0]);
+        assertEquals(0, bytes[2]);
+        assertEquals(GsonCodec.DEFAULT_GSON.toJson(items), GsonCodec.DEFAULT_GSON.toJson(read(handler, bytes)));
+    }
+
+    @Test
+    public void largeListIsDeflated() throws Exception {
+        ItemListTypeHandler handler = new ItemListTypeHandler();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            items.add(item(i));
+
+        byte[] bytes = write(handler, items);
+        assertEquals(BinaryJson.FLAG_DEFLATE, bytes[2]);
+        assertEquals(GsonCodec.DEFAULT_GSON.toJson(items), GsonCodec.DEFAULT_GSON.toJson(read(handler, bytes)));
+
+        handler.compressThreshold = -1;
+        assertEquals(0, write(handler, items)[2]);
+    }
+
+    @Test
+    public void readsLegacyJsonText() throws Exception {
+        ItemListTypeHandler handler = new ItemListTypeHandler();
+        List<Item> items = Arrays.asList(item(1), item(2));
+        byte[] legacy = GsonCodec.DEFAULT_GSON.toJson(items).getBytes(StandardCharsets.UTF_8);
+
+        List<Item> read = read(handler, legacy);
+        assertEquals(GsonCodec.DEFAULT_GSON.toJson(items), GsonCodec.DEFAULT_GSON.toJson(read));
+        // 旧数据读出后再写回时转换为二进制
+        assertEquals(BinaryJson.MAGIC, write(handler, read)[0]);
+        assertNull(read(handler, new byte[0]));
+    }
+
+    @Test
+    public void unknownFieldsAreSkipped() throws Exception {
+        byte[] bytes = write(new ItemListTypeHandler(), Arrays.asList(item(1), item(2)));
+
+        List<Name> names = read(new NameListTypeHandler(), bytes);
+        assertEquals(2, names.size());
+        assertEquals("名称1", names.get(0).name);
+        assertEquals("名称2", names.get(1).name);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void newerVersionIsRejected() throws Exception {
+        byte[] bytes = write(new ItemListTypeHandler(), Collections.singletonList(item(1)));
+        bytes[1] = BinaryJson.VERSION + 1;
+        read(new ItemListTypeHandler(), bytes);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void projectionIsRejected() throws Exception {
+        ItemListTypeHandler handler = new ItemListTypeHandler();
+        handler.projection = JsonProjection.of("name");
+        write(handler, Collections.singletonList(item(1)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void codecIsRejectedForLegacyText() throws Exception {
+        ItemListTypeHandler handler = new ItemListTypeHandler();
+        handler.codec = JsonListCodec.FASTJSON;
+        read(handler, "[]".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Item item(int i) {
+        Item item = new Item();
+        item.id = i * 1_000_000_007L;
+        item.name = "名称" + i;
+        item.score = i / 3.0;
+        item.price = new BigDecimal("12345678901234567890.0" + Math.abs(i));
+        item.enabled = i % 2 == 0;
+        item.tags = Arrays.asList("a" + i, "😀");
+        item.counts = new LinkedHashMap<>();
+        item.counts.put("x", i);
+        item.counts.put("", -i);
+        item.byId = new LinkedHashMap<>();
+        item.byId.put(i, "v" + i);
+        item.byId.put(Integer.MIN_VALUE, null);
+        return item;
+    }
+
+    private static <T> byte[] write(BinaryJsonListTypeHandler<T> handler, List<T> list) throws Exception {
+        byte[][] bound = new byte[1][];
+        PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(BinaryJsonListTypeHandlerTest.class.getClassLoader(),
+                new Class[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("setBytes"))
+                        bound[0] = (byte[]) args[1];
+                    return null;
+                });
+        handler.setNonNullParameter(ps, 1, list, null);
+        return bound[0];
+    }
+
+    private static <T> List<T> read(BinaryJsonListTypeHandler<T> handler, byte[] content) throws Exception {
+        ResultSet rs = (ResultSet) Proxy.newProxyInstance(BinaryJsonListTypeHandlerTest.class.getClassLoader(),
+                new Class[]{ResultSet.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getBytes"))
+                        return content;
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return handler.getNullableResult(rs, "items");
+    }
+
+    public static class Item {
+        long id;
+        String name;
+        double score;
+        BigDecimal price;
+        boolean enabled;
+        List<String> tags;
+        Map<String, Integer> counts;
+        Map<Integer, String> byId;
+        Item child;
+    }
+
+    public static class Name {
+        String name;
+    }
+
+    public static class ItemListTypeHandler extends BinaryJsonListTypeHandler<Item> {
+    }
+
+    public static class NameListTypeHandler extends BinaryJsonListTypeHandler<Name> {
+    }
+}
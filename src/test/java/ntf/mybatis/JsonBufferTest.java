@@ -0,0 +1,71 @@
+package ntf.mybatis;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JsonBufferTest {
+
+    private static final int LARGE = 64 * 1024;
+
+    @After
+    public void clear() {
+        JsonBuffer.clear();
+    }
+
+    @Test
+    public void reusedAfterRelease() throws Exception {
+        JsonBuffer first = JsonBuffer.acquire();
+        first.write(new char[LARGE], 0, LARGE);
+        first.release();
+
+        // 复用同一个已扩容的StringBuilder，内容已清空
+        JsonBuffer second = JsonBuffer.acquire();
+        assertTrue(second.capacity() >= LARGE);
+        assertEquals("", second.toString());
+        second.write("d");
+        assertEquals("d", second.toString());
+        second.release();
+    }
+
+    @Test
+    public void nestedAcquireGetsSeparateBuffer() throws Exception {
+        JsonBuffer outer = JsonBuffer.acquire();
+        outer.write("outer");
+        JsonBuffer inner = JsonBuffer.acquire();
+        inner.write("inner");
+        assertEquals("outer", outer.toString());
+        assertEquals("inner", inner.toString());
+        inner.release();
+        outer.release();
+    }
+
+    @Test
+    public void oversizedBufferIsDropped() throws Exception {
+        JsonBuffer buffer = JsonBuffer.acquire();
+        buffer.write(new char[2 * JsonBuffer.MAX_RETAINED], 0, 2 * JsonBuffer.MAX_RETAINED);
+        assertTrue(buffer.capacity() > JsonBuffer.MAX_RETAINED);
+        buffer.release();
+
+        JsonBuffer next = JsonBuffer.acquire();
+        assertTrue(next.capacity() <= JsonBuffer.MAX_RETAINED);
+        assertEquals("", next.toString());
+        next.release();
+    }
+
+    @Test
+    public void clearedBufferIsRecreated() throws Exception {
+        JsonBuffer buffer = JsonBuffer.acquire();
+        buffer.write(new char[LARGE], 0, LARGE);
+        buffer.release();
+        JsonListTypeHandler.clearThreadBuffer();
+
+        JsonBuffer next = JsonBuffer.acquire();
+        assertTrue(next.capacity() < LARGE);
+        next.write("y");
+        assertEquals("y", next.toString());
+        next.release();
+    }
+}
@@ -0,0 +1,98 @@
+package ntf.mybatis;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonListTypeHandlerTest {
+
+    @Test
+    public void streamingWriteSnapshotsList() throws Exception {
+        StringListTypeHandler handler = new StringListTypeHandler();
+        handler.streaming = true;
+        Object[] bound = new Object[1];
+        PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("setCharacterStream"))
+                        bound[0] = args[1];
+                    return null;
+                });
+        List<String> list = new ArrayList<>(Arrays.asList("a", "b"));
+        handler.setNonNullParameter(ps, 1, list, null);
+        // BATCH模式下驱动在executeBatch时才读取，调用方可能已经复用了列表
+        list.clear();
+        list.add("c");
+        assertEquals("[\"a\",\"b\"]", read((Reader) bound[0]));
+    }
+
+    @Test
+    public void streamingWriteUsesRuntimeType() throws Exception {
+        AnimalListTypeHandler handler = new AnimalListTypeHandler();
+        List<Animal> list = Arrays.asList(new Animal("a"), new Dog("d", true));
+        String expected = handler.toJson(list);
+        assertEquals("[{\"name\":\"a\"},{\"barks\":true,\"name\":\"d\"}]", expected);
+
+        handler.streaming = true;
+        Object[] bound = new Object[1];
+        PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("setCharacterStream"))
+                        bound[0] = args[1];
+                    return null;
+                });
+        handler.setNonNullParameter(ps, 1, list, null);
+        assertEquals(expected, read((Reader) bound[0]));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void streamingWithCodecIsRejected() throws Exception {
+        StringListTypeHandler handler = new StringListTypeHandler();
+        handler.streaming = true;
+        handler.codec = JsonListCodec.GSON;
+        handler.setNonNullParameter((PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{PreparedStatement.class}, (proxy, method, args) -> null), 1, Arrays.asList("a"), null);
+    }
+
+    private static String read(Reader reader) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buf = new char[16];
+        for (int n; (n = reader.read(buf)) != -1; )
+            sb.append(buf, 0, n);
+        return sb.toString();
+    }
+
+    public static class StringListTypeHandler extends JsonListTypeHandler<String> {
+    }
+
+    public static class Animal {
+        String name;
+
+        Animal(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Dog extends Animal {
+        boolean barks;
+
+        Dog(String name, boolean barks) {
+            super(name);
+            this.barks = barks;
+        }
+    }
+
+    public static class AnimalListTypeHandler extends JsonListTypeHandler<Animal> {
+
+        String toJson(List<Animal> list) {
+            return listAdapter().toJson(list);
+        }
+    }
+}
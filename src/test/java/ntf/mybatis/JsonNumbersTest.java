@@ -0,0 +1,130 @@
+package ntf.mybatis;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class JsonNumbersTest {
+
+    @Test
+    public void longRoundTrip() {
+        long[] values = {0, 1, -1, Long.MAX_VALUE, Long.MIN_VALUE, Integer.MAX_VALUE + 1L, -1234567890123L};
+        assertEquals("[0,1,-1,9223372036854775807,-9223372036854775808,2147483648,-1234567890123]", JsonNumbers.toJson(values));
+        assertArrayEquals(values, JsonNumbers.parseLongs(JsonNumbers.toJson(values)));
+        assertArrayEquals(new long[0], JsonNumbers.parseLongs(JsonNumbers.toJson(new long[0])));
+    }
+
+    @Test
+    public void intRoundTrip() {
+        int[] values = {0, 7, -7, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        assertArrayEquals(values, JsonNumbers.parseInts(JsonNumbers.toJson(values)));
+        assertArrayEquals(new int[0], JsonNumbers.parseInts("[]"));
+    }
+
+    @Test
+    public void doubleRoundTrip() {
+        Random random = new Random(42);
+        double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            switch (i % 4) {
+                case 0:
+                    values[i] = random.nextDouble();
+                    break;
+                case 1:
+                    values[i] = (random.nextInt(2_000_000) - 1_000_000) / 100.0;
+                    break;
+                case 2:
+                    values[i] = Double.longBitsToDouble(random.nextLong());
+                    break;
+                default:
+                    values[i] = random.nextGaussian() * 1e-10;
+            }
+            if (Double.isNaN(values[i]) || Double.isInfinite(values[i]))
+                values[i] = i;
+        }
+        values[0] = -0.0;
+        values[1] = Double.MIN_VALUE;
+        values[2] = Double.MAX_VALUE;
+        assertBitsEquals(values, JsonNumbers.parseDoubles(JsonNumbers.toJson(values)));
+    }
+
+    @Test
+    public void doubleMatchesDoubleParseDouble() {
+        Random random = new Random(7);
+        StringBuilder json = new StringBuilder("[");
+        String[] texts = new String[2000];
+        for (int i = 0; i < texts.length; i++) {
+            StringBuilder text = new StringBuilder();
+            if (random.nextBoolean())
+                text.append('-');
+            text.append(random.nextInt(100_000));
+            if (random.nextInt(4) > 0) {
+                text.append('.');
+                // 包括前导0与超过17位有效数字的情况
+                for (int n = random.nextInt(25) + 1; n > 0; n--)
+                    text.append(random.nextInt(10));
+            }
+            if (random.nextInt(8) == 0)
+                text.append('e').append(random.nextInt(40) - 20);
+            texts[i] = text.toString();
+            json.append(i == 0 ? "" : ", ").append(texts[i]);
+        }
+        double[] expected = new double[texts.length];
+        for (int i = 0; i < texts.length; i++)
+            expected[i] = Double.parseDouble(texts[i]);
+        assertBitsEquals(expected, JsonNumbers.parseDoubles(json.append(']').toString()));
+    }
+
+    @Test
+    public void integralValuesWithFractionOrExponent() {
+        assertArrayEquals(new long[]{1, -20, 3000}, JsonNumbers.parseLongs("[1.0, -2e1, 3.0E3]"));
+        assertArrayEquals(new int[]{5}, JsonNumbers.parseInts(" [ 5.00 ] "));
+    }
+
+    @Test
+    public void nullAndWhitespace() {
+        assertNull(JsonNumbers.parseLongs("null"));
+        assertNull(JsonNumbers.parseInts(" null "));
+        assertNull(JsonNumbers.parseDoubles("null"));
+        assertArrayEquals(new long[]{1, 2}, JsonNumbers.parseLongs("\n[ 1 ,\t2 ]\n"));
+    }
+
+    @Test
+    public void invalidInputRejected() {
+        assertRejected(() -> JsonNumbers.parseLongs("[9223372036854775808]"));
+        assertRejected(() -> JsonNumbers.parseLongs("[-9223372036854775809]"));
+        assertRejected(() -> JsonNumbers.parseInts("[2147483648]"));
+        assertRejected(() -> JsonNumbers.parseLongs("[1.5]"));
+        assertRejected(() -> JsonNumbers.parseLongs("[1e19]"));
+        assertRejected(() -> JsonNumbers.parseLongs("[1,]"));
+        assertRejected(() -> JsonNumbers.parseLongs("[1 2]"));
+        assertRejected(() -> JsonNumbers.parseLongs("[1] x"));
+        assertRejected(() -> JsonNumbers.parseLongs("[\"1\"]"));
+        assertRejected(() -> JsonNumbers.parseLongs("null x"));
+        assertRejected(() -> JsonNumbers.parseDoubles("[1"));
+        assertRejected(() -> JsonNumbers.parseDoubles("[-]"));
+        assertRejected(() -> JsonNumbers.toJson(new double[]{Double.NaN}));
+        assertRejected(() -> JsonNumbers.toJson(new double[]{Double.POSITIVE_INFINITY}));
+    }
+
+    private static void assertBitsEquals(double[] expected, double[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++)
+            if (Double.doubleToLongBits(expected[i]) != Double.doubleToLongBits(actual[i]))
+                fail("index " + i + ": expected " + expected[i] + " but was " + actual[i]);
+    }
+
+    private static void assertRejected(Runnable parse) {
+        try {
+            parse.run();
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        fail("expected IllegalArgumentException");
+    }
+}
@@ -0,0 +1,39 @@
+package ntf.mybatis;
+
+import com.google.gson.stream.JsonReader;
+import org.junit.Test;
+
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonProjectionTest {
+
+    private static final String JSON = "[{\"id\":1,\"name\":\"a\",\"sku\":{\"code\":\"c1\",\"price\":2},\"tags\":[{\"k\":\"x\",\"v\":1}]},"
+            + "{\"id\":2,\"sku\":null,\"tags\":[]}]";
+
+    @Test
+    public void keepsOnlyProjectedPaths() throws Exception {
+        assertEquals("[{\"id\":1,\"sku\":{\"code\":\"c1\"},\"tags\":[{\"k\":\"x\"}]},{\"id\":2,\"tags\":[]}]",
+                read(JsonProjection.of("id", "sku.code", "tags.k")));
+    }
+
+    @Test
+    public void parentPathKeepsWholeSubtree() throws Exception {
+        String expected = "[{\"sku\":{\"code\":\"c1\",\"price\":2}},{}]";
+        assertEquals(expected, read(JsonProjection.of("sku", "sku.code")));
+        assertEquals(expected, read(JsonProjection.of("sku.code", "sku")));
+    }
+
+    @Test
+    public void sharedProjectionIsReusable() throws Exception {
+        JsonProjection projection = JsonProjection.of("name");
+        assertEquals(read(projection), read(projection));
+        assertEquals("JsonProjection[name]", projection.toString());
+    }
+
+    // DEFAULT_GSON不输出null值
+    private static String read(JsonProjection projection) throws Exception {
+        return GsonCodec.DEFAULT_GSON.toJson(projection.read(new JsonReader(new StringReader(JSON))));
+    }
+}
@@ -0,0 +1,54 @@
+package ntf.mybatis;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LazyJsonListTest {
+
+    @Test
+    public void loadsOnceOnFirstAccess() {
+        int[] calls = new int[1];
+        LazyJsonList<String> list = new LazyJsonList<>("raw", raw -> {
+            calls[0]++;
+            return new ArrayList<>(Arrays.asList(raw, raw));
+        });
+        assertFalse(list.isLoaded());
+        assertEquals("raw", LazyJsonList.raw(list));
+
+        assertEquals(2, list.size());
+        list.add("x");
+        assertEquals(3, list.size());
+        assertEquals(1, calls[0]);
+        assertTrue(list.isLoaded());
+        assertNull(LazyJsonList.raw(list));
+    }
+
+    @Test
+    public void serializedAsArrayList() throws Exception {
+        LazyJsonList<String> list = new LazyJsonList<>("a,b", raw -> new ArrayList<>(Arrays.asList(raw.split(","))));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(list);
+        }
+        Object read;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = in.readObject();
+        }
+        assertEquals(ArrayList.class, read.getClass());
+        assertEquals(Arrays.asList("a", "b"), read);
+        assertEquals(Arrays.asList("a", "b"), (List<?>) list);
+    }
+}
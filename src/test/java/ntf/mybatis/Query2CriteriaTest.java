@@ -0,0 +1,264 @@
+package ntf.mybatis;
+
+import ntf.annotation.Criteria;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class Query2CriteriaTest {
+
+    private final Query2Criteria<Query, Example.Criteria> q2c = new Query2Criteria<>(Query.class, Example.Criteria.class);
+
+    @Test
+    public void emptyNotInIsIgnored() {
+        Query q = new Query();
+        q.setStatusNotIn(new ArrayList<>());
+        q.setPidNotIn(new ArrayList<>());
+        q.setName("n");
+        assertEquals(Collections.singletonList("name = n"), q2c.convert(q).conditions);
+    }
+
+    @Test
+    public void emptyInConvertsToAlwaysFalse() {
+        Query q = new Query();
+        q.setIdIn(new ArrayList<>());
+        assertEquals(Collections.singletonList("1 = 0"), q2c.convert(q).conditions);
+    }
+
+    @Test
+    public void emptyInSelectSkipsDatabase() {
+        Query q = new Query();
+        q.setIdIn(new ArrayList<>());
+        List<String> result = q2c.select(q, Example::new, Example::or, e -> {
+            throw new IllegalStateException("不应访问数据库");
+        });
+        assertEquals(Collections.emptyList(), result);
+    }
+
+    @Test
+    public void inSplitIntoOrGroups() {
+        Query q = new Query();
+        q.setIdIn(Arrays.asList(1L, 2L, 2L, 3L, 4L, 5L));
+        q.setName("n");
+        List<String> queries = q2c.select(q, Example::new, Example::or, Query2CriteriaTest::describe);
+        // 去重后拆成3组，一次查询，每组都带上其余条件
+        assertEquals(Collections.singletonList(
+                "[id in [1, 2], name = n] OR [id in [3, 4], name = n] OR [id in [5], name = n]"), queries);
+    }
+
+    @Test
+    public void inSplitIntoQueries() {
+        Query q = new Query();
+        q.setCodes(Arrays.asList(1, 2, 3, 4));
+        q.setName("n");
+        List<String> queries = q2c.select(q, Example::new, Example::or, Query2CriteriaTest::describe);
+        assertEquals(Arrays.asList("[code in [1, 2, 3], name = n]", "[code in [4], name = n]"), queries);
+    }
+
+    @Test
+    public void querySplitDedupesEvenWithoutDistinct() {
+        Query q = new Query();
+        q.setRawCodes(Arrays.asList(1, 2, 1, 3, 2, 4));
+        List<String> queries = q2c.select(q, Example::new, Example::or, Query2CriteriaTest::describe);
+        assertEquals(Arrays.asList("[code in [1, 2, 3]]", "[code in [4]]"), queries);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void querySplitRejectsOrderBy() {
+        Query q = new Query();
+        q.setCodes(Arrays.asList(1, 2, 3, 4));
+        q2c.select(q, () -> {
+            Example example = new Example();
+            example.setOrderByClause("id desc");
+            return example;
+        }, Example::or, Query2CriteriaTest::describe);
+    }
+
+    @Test
+    public void orSplitAllowsOrderBy() {
+        Query q = new Query();
+        q.setIdIn(Arrays.asList(1L, 2L, 3L));
+        List<String> queries = q2c.select(q, () -> {
+            Example example = new Example();
+            example.setOrderByClause("id desc");
+            return example;
+        }, Example::or, Query2CriteriaTest::describe);
+        assertEquals(1, queries.size());
+    }
+
+    @Test
+    public void querySplitAndOrSplitCombined() {
+        Query q = new Query();
+        q.setIdIn(Arrays.asList(1L, 2L, 3L));
+        q.setCodes(Arrays.asList(1, 2, 3, 4));
+        q.setPidNotIn(Arrays.asList(7L, 8L, 9L));
+        List<String> queries = q2c.select(q, Example::new, Example::or, Query2CriteriaTest::describe);
+        assertEquals(Arrays.asList(
+                "[code in [1, 2, 3], id in [1, 2], pid not in [7, 8], pid not in [9]]"
+                        + " OR [code in [1, 2, 3], id in [3], pid not in [7, 8], pid not in [9]]",
+                "[code in [4], id in [1, 2], pid not in [7, 8], pid not in [9]]"
+                        + " OR [code in [4], id in [3], pid not in [7, 8], pid not in [9]]"), queries);
+        // 拆分过程中不修改query中的列表
+        assertEquals(Arrays.asList(1L, 2L, 3L), q.getIdIn());
+    }
+
+    @Test
+    public void notOversizedInIsNotSplit() {
+        Query q = new Query();
+        q.setIdIn(Arrays.asList(1L, 2L));
+        q.setCodes(Arrays.asList(1, 2, 3));
+        List<String> queries = q2c.select(q, Example::new, Example::or, Query2CriteriaTest::describe);
+        assertEquals(Collections.singletonList("[code in [1, 2, 3], id in [1, 2]]"), queries);
+    }
+
+    /**
+     * 一次查询记录为一个字符串，OR的各组用 OR 连接，组内条件按字母排序（与属性顺序无关）
+     */
+    private static List<String> describe(Example example) {
+        StringBuilder sb = new StringBuilder();
+        for (Example.Criteria criteria : example.oredCriteria) {
+            List<String> conditions = new ArrayList<>(criteria.conditions);
+            Collections.sort(conditions);
+            sb.append(sb.length() == 0 ? "" : " OR ").append(conditions);
+        }
+        return Collections.singletonList(sb.toString());
+    }
+
+    @Test
+    public void notInBatches() {
+        Query q = new Query();
+        q.setPidNotIn(Arrays.asList(1L, 2L, 2L, 3L));
+        assertEquals(Arrays.asList("pid not in [1, 2]", "pid not in [3]"), q2c.convert(q).conditions);
+    }
+
+    public static class Query {
+
+        @Criteria.In(batchSize = 2)
+        private List<Long> idIn;
+
+        @Criteria.In(value = "code", batchSize = 3, split = Criteria.Split.QUERY)
+        private List<Integer> codes;
+
+        @Criteria.In(value = "code", batchSize = 3, split = Criteria.Split.QUERY, distinct = false)
+        private List<Integer> rawCodes;
+
+        @Criteria.NotIn
+        private List<Integer> statusNotIn;
+
+        @Criteria.NotIn(batchSize = 2)
+        private List<Long> pidNotIn;
+
+        private String name;
+
+        public List<Long> getIdIn() {
+            return idIn;
+        }
+
+        public void setIdIn(List<Long> idIn) {
+            this.idIn = idIn;
+        }
+
+        public List<Integer> getCodes() {
+            return codes;
+        }
+
+        public void setCodes(List<Integer> codes) {
+            this.codes = codes;
+        }
+
+        public List<Integer> getRawCodes() {
+            return rawCodes;
+        }
+
+        public void setRawCodes(List<Integer> rawCodes) {
+            this.rawCodes = rawCodes;
+        }
+
+        public List<Integer> getStatusNotIn() {
+            return statusNotIn;
+        }
+
+        public void setStatusNotIn(List<Integer> statusNotIn) {
+            this.statusNotIn = statusNotIn;
+        }
+
+        public List<Long> getPidNotIn() {
+            return pidNotIn;
+        }
+
+        public void setPidNotIn(List<Long> pidNotIn) {
+            this.pidNotIn = pidNotIn;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * 仿mybatis generator生成的Example，条件记录为字符串
+     */
+    public static class Example {
+
+        final List<Criteria> oredCriteria = new ArrayList<>();
+
+        private String orderByClause;
+
+        public String getOrderByClause() {
+            return orderByClause;
+        }
+
+        public void setOrderByClause(String orderByClause) {
+            this.orderByClause = orderByClause;
+        }
+
+        public Criteria or() {
+            Criteria criteria = new Criteria();
+            oredCriteria.add(criteria);
+            return criteria;
+        }
+
+        public static class Criteria {
+
+            final List<String> conditions = new ArrayList<>();
+
+            protected void addCriterion(String condition) {
+                conditions.add(condition);
+            }
+
+            public Criteria andIdIn(List<Long> values) {
+                conditions.add("id in " + values);
+                return this;
+            }
+
+            public Criteria andCodeIn(List<Integer> values) {
+                conditions.add("code in " + values);
+                return this;
+            }
+
+            public Criteria andStatusNotIn(List<Integer> values) {
+                conditions.add("status not in " + values);
+                return this;
+            }
+
+            public Criteria andPidNotIn(List<Long> values) {
+                conditions.add("pid not in " + values);
+                return this;
+            }
+
+            public Criteria andNameEqualTo(String value) {
+                conditions.add("name = " + value);
+                return this;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ntf.mybatis;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class QueryCacheInterceptorTest {
+
+    @Test
+    public void singleTableStatements() {
+        assertEquals("cust", QueryCacheInterceptor.tableOf("insert into cust (id, name) values (?, ?)"));
+        assertEquals("cust", QueryCacheInterceptor.tableOf("INSERT LOW_PRIORITY IGNORE INTO `db`.`cust`(id) VALUES (?)"));
+        assertEquals("cust", QueryCacheInterceptor.tableOf("replace into cust select * from cust_tmp"));
+        assertEquals("cust", QueryCacheInterceptor.tableOf("update cust set name = ? where id = ?"));
+        assertEquals("cust", QueryCacheInterceptor.tableOf("UPDATE LOW_PRIORITY IGNORE cust SET name = ?"));
+        assertEquals("cust", QueryCacheInterceptor.tableOf("update cust c set c.name = ?"));
+        assertEquals("ignore_log", QueryCacheInterceptor.tableOf("update ignore_log set n = 1"));
+        assertEquals("cust", QueryCacheInterceptor.tableOf("\n  delete from cust\n  where id = ?"));
+        assertEquals("cust", QueryCacheInterceptor.tableOf("DELETE LOW_PRIORITY QUICK FROM cust"));
+    }
+
+    @Test
+    public void multiTableOrUnknownInvalidatesAll() {
+        assertEquals("*", QueryCacheInterceptor.tableOf("update cust join orders o on o.cust_id = cust.id set o.flag = 1"));
+        assertEquals("*", QueryCacheInterceptor.tableOf("update cust c inner join orders o on o.cust_id = c.id set o.flag = 1"));
+        assertEquals("*", QueryCacheInterceptor.tableOf("update cust, orders set orders.flag = 1 where orders.cust_id = cust.id"));
+        assertEquals("*", QueryCacheInterceptor.tableOf("delete cust, orders from cust join orders on orders.cust_id = cust.id"));
+        assertEquals("*", QueryCacheInterceptor.tableOf("delete c from cust c join orders o on o.cust_id = c.id"));
+        assertEquals("*", QueryCacheInterceptor.tableOf("delete from cust using cust join orders"));
+        assertEquals("*", QueryCacheInterceptor.tableOf("/* hint */ update cust set name = ?"));
+        assertEquals("*", QueryCacheInterceptor.tableOf("truncate table cust"));
+    }
+}
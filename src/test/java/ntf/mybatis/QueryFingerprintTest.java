@@ -0,0 +1,131 @@
+package ntf.mybatis;
+
+import ntf.annotation.Criteria;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class QueryFingerprintTest {
+
+    private final Query2Criteria<Query, Example.Criteria> q2c = new Query2Criteria<>(Query.class, Example.Criteria.class);
+
+    @Test
+    public void pageNumIsPartOfFingerprint() {
+        assertNotEquals(q2c.fingerprint(query(1, "a")), q2c.fingerprint(query(2, "a")));
+        assertEquals(q2c.fingerprint(query(1, "a")), q2c.fingerprint(query(1, "a")));
+    }
+
+    @Test
+    public void exceptFieldIsPartOfFingerprint() {
+        Query q1 = query(1, "a");
+        Query q2 = query(1, "a");
+        q2.setSort("name desc");
+        assertNotEquals(q2c.fingerprint(q1), q2c.fingerprint(q2));
+    }
+
+    @Test
+    public void inListIgnoresOrderAndDuplicates() {
+        Query q1 = query(1, "a");
+        q1.setIdIn(Arrays.asList(1L, 2L, 3L));
+        Query q2 = query(1, "a");
+        q2.setIdIn(Arrays.asList(3L, 2L, 1L, 1L));
+        assertEquals(q2c.fingerprint(q1), q2c.fingerprint(q2));
+    }
+
+    @Test
+    public void cachedPagesDoNotCollide() {
+        QueryResultCache cache = new QueryResultCache(100, 1, TimeUnit.MINUTES);
+        AtomicInteger loads = new AtomicInteger();
+        String page1 = cache.get("cust", query(1, "a"), q2c, () -> "page" + loads.incrementAndGet());
+        String page2 = cache.get("cust", query(2, "a"), q2c, () -> "page" + loads.incrementAndGet());
+        assertEquals("page1", page1);
+        assertEquals("page2", page2);
+        assertEquals("page1", cache.get("cust", query(1, "a"), q2c, () -> "reloaded"));
+    }
+
+    private static Query query(int pageNum, String name) {
+        Query q = new Query();
+        q.setPageNum(pageNum);
+        q.setPageSize(20);
+        q.setName(name);
+        return q;
+    }
+
+    public static class PageQuery {
+
+        private Integer pageNum;
+
+        private Integer pageSize;
+
+        public Integer getPageNum() {
+            return pageNum;
+        }
+
+        public void setPageNum(Integer pageNum) {
+            this.pageNum = pageNum;
+        }
+
+        public Integer getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(Integer pageSize) {
+            this.pageSize = pageSize;
+        }
+    }
+
+    public static class Query extends PageQuery {
+
+        private String name;
+
+        @Criteria.In
+        private List<Long> idIn;
+
+        @Criteria.Except
+        private String sort;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<Long> getIdIn() {
+            return idIn;
+        }
+
+        public void setIdIn(List<Long> idIn) {
+            this.idIn = idIn;
+        }
+
+        public String getSort() {
+            return sort;
+        }
+
+        public void setSort(String sort) {
+            this.sort = sort;
+        }
+    }
+
+    public static class Example {
+
+        public static class Criteria {
+
+            public Criteria andNameEqualTo(String value) {
+                return this;
+            }
+
+            public Criteria andIdIn(List<Long> values) {
+                return this;
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ntf.benchmark;
+
+import ntf.core.LongIndex;
+import ntf.function.BeanFunctions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * BeanFunctions.beanMap / beanMapAll / identifyByKey / identifyByLongKey / join
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanFunctionsBenchmark {
+
+    @Param({"100", "10000", "500000"})
+    private int size;
+
+    private List<Fixtures.ItemDto> dtos;
+
+    @Setup
+    public void setup() {
+        dtos = Fixtures.itemDtos(size);
+    }
+
+    @Benchmark
+    public List<Fixtures.Item> beanMap() {
+        return dtos.stream()
+                .map(BeanFunctions.<Fixtures.ItemDto, Fixtures.Item>beanMap(Fixtures.Item.class))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Fixtures.Item> beanMapAll() {
+        return BeanFunctions.beanMapAll(dtos, Fixtures.Item.class);
+    }
+
+    @Benchmark
+    public Map<Object, Fixtures.ItemDto> identifyByKey() {
+        return BeanFunctions.identifyByKey(dtos, "id");
+    }
+
+    @Benchmark
+    public Map<Long, Fixtures.ItemDto> identifyByKeyExtractor() {
+        return BeanFunctions.identifyByKey(dtos, Fixtures.ItemDto::getId);
+    }
+
+    @Benchmark
+    public LongIndex<Fixtures.ItemDto> identifyByLongKey() {
+        return BeanFunctions.identifyByLongKey(dtos, Fixtures.ItemDto::getId);
+    }
+
+    @Benchmark
+    public List<Fixtures.ItemDto> join() {
+        return BeanFunctions.join(dtos, Fixtures.ItemDto::getId, dtos, Fixtures.ItemDto::getId, (l, r) -> r);
+    }
+}
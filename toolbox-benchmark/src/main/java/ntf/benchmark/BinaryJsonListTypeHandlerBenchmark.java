@@ -0,0 +1,52 @@
+package ntf.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BinaryJsonListTypeHandler 读写，size为列表元素个数，compress为是否deflate
+ * 与JsonListTypeHandlerBenchmark的数据相同，可直接对比文本格式
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryJsonListTypeHandlerBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    @Param({"false", "true"})
+    private boolean compress;
+
+    private Fixtures.BinaryItemListTypeHandler handler;
+    private ResultSet resultSet;
+    private PreparedStatement preparedStatement;
+    private List<Fixtures.Item> items;
+
+    @Setup
+    public void setup() throws SQLException {
+        handler = new Fixtures.BinaryItemListTypeHandler(compress);
+        resultSet = Fixtures.binaryResultSet(Fixtures.itemsBinary(handler, size));
+        preparedStatement = Fixtures.preparedStatement();
+        items = Fixtures.items(size);
+    }
+
+    @Benchmark
+    public List<Fixtures.Item> read() throws SQLException {
+        return handler.getNullableResult(resultSet, "items");
+    }
+
+    @Benchmark
+    public PreparedStatement write() throws SQLException {
+        handler.setNonNullParameter(preparedStatement, 1, items, null);
+        return preparedStatement;
+    }
+}
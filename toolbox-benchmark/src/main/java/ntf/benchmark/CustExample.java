@@ -0,0 +1,157 @@
+package ntf.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 仿mybatis generator生成的Example
+ */
+public class CustExample {
+
+    protected List<Criteria> oredCriteria = new ArrayList<>();
+
+    public Criteria or() {
+        Criteria criteria = new Criteria();
+        oredCriteria.add(criteria);
+        return criteria;
+    }
+
+    public List<Criteria> getOredCriteria() {
+        return oredCriteria;
+    }
+
+    protected abstract static class GeneratedCriteria {
+
+        protected List<Criterion> criteria = new ArrayList<>();
+
+        protected void addCriterion(String condition) {
+            if (condition == null)
+                throw new RuntimeException("Value for condition cannot be null");
+            criteria.add(new Criterion(condition, null));
+        }
+
+        protected void addCriterion(String condition, Object value, String property) {
+            if (value == null)
+                throw new RuntimeException("Value for " + property + " cannot be null");
+            criteria.add(new Criterion(condition, value));
+        }
+
+        public List<Criterion> getCriteria() {
+            return criteria;
+        }
+
+        public Criteria andCustNameLike(String value) {
+            addCriterion("cust_name like", value, "custName");
+            return (Criteria) this;
+        }
+
+        public Criteria andCustCodeLike(String value) {
+            addCriterion("cust_code like", value, "custCode");
+            return (Criteria) this;
+        }
+
+        public Criteria andIdIn(List<Long> value) {
+            addCriterion("id in", value, "id");
+            return (Criteria) this;
+        }
+
+        public Criteria andStatusNotIn(List<Integer> value) {
+            addCriterion("status not in", value, "status");
+            return (Criteria) this;
+        }
+
+        public Criteria andOrgIdEqualTo(Long value) {
+            addCriterion("org_id =", value, "orgId");
+            return (Criteria) this;
+        }
+
+        public Criteria andAmountGreatThan(BigDecimal value) {
+            addCriterion("amount >", value, "amount");
+            return (Criteria) this;
+        }
+
+        public Criteria andAmountLessThan(BigDecimal value) {
+            addCriterion("amount <", value, "amount");
+            return (Criteria) this;
+        }
+
+        public Criteria andCreateTimeGreaterThanOrEqualTo(Date value) {
+            addCriterion("create_time >=", value, "createTime");
+            return (Criteria) this;
+        }
+
+        public Criteria andCreateTimeLessThanOrEqualTo(Date value) {
+            addCriterion("create_time <=", value, "createTime");
+            return (Criteria) this;
+        }
+
+        public Criteria andTypeEqualTo(Integer value) {
+            addCriterion("type =", value, "type");
+            return (Criteria) this;
+        }
+
+        public Criteria andDeletedEqualTo(Boolean value) {
+            addCriterion("deleted =", value, "deleted");
+            return (Criteria) this;
+        }
+
+        public Criteria andRemarkLike(String value) {
+            addCriterion("remark like", value, "remark");
+            return (Criteria) this;
+        }
+
+        public Criteria andMailLike(String value) {
+            addCriterion("mail like", value, "mail");
+            return (Criteria) this;
+        }
+
+        public Criteria andRegionIn(List<String> value) {
+            addCriterion("region in", value, "region");
+            return (Criteria) this;
+        }
+
+        public Criteria andPhoneEqualTo(String value) {
+            addCriterion("phone =", value, "phone");
+            return (Criteria) this;
+        }
+
+        public Criteria andLevelEqualTo(Integer value) {
+            addCriterion("level =", value, "level");
+            return (Criteria) this;
+        }
+
+        public Criteria andTagNotIn(List<String> value) {
+            addCriterion("tag not in", value, "tag");
+            return (Criteria) this;
+        }
+
+        public Criteria andSourceEqualTo(String value) {
+            addCriterion("source =", value, "source");
+            return (Criteria) this;
+        }
+    }
+
+    public static class Criteria extends GeneratedCriteria {
+    }
+
+    public static class Criterion {
+
+        private final String condition;
+        private final Object value;
+
+        Criterion(String condition, Object value) {
+            this.condition = condition;
+            this.value = value;
+        }
+
+        public String getCondition() {
+            return condition;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package ntf.benchmark;
+
+import ntf.annotation.Criteria;
+import ntf.annotation.CriteriaConverter;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 20个带注解属性的查询对象，与列表页的查询条件规模相当
+ */
+@CriteriaConverter(CustExample.Criteria.class)
+public class CustQuery {
+
+    @Criteria.Like("custName")
+    private String custNameLike;
+
+    @Criteria.StartsWith
+    private String custCodeStartsWith;
+
+    @Criteria.In
+    private List<Long> idIn;
+
+    @Criteria.NotIn
+    private List<Integer> statusNotIn;
+
+    private Long orgId;
+
+    @Criteria.GreatThan
+    private BigDecimal amountGreatThan;
+
+    @Criteria.LessThan("amount")
+    private BigDecimal amountMax;
+
+    @Criteria.GreaterThanOrEqualTo("createTime")
+    private Date createTimeFrom;
+
+    @Criteria.LessThanOrEqualTo("createTime")
+    private Date createTimeTo;
+
+    @Criteria.EqualTo
+    private Integer type;
+
+    private Boolean deleted;
+
+    @Criteria.Like
+    private String remarkLike;
+
+    @Criteria.EndsWith("mail")
+    private String mailSuffix;
+
+    @Criteria.In("region")
+    private List<String> regions;
+
+    private String phone;
+
+    private Integer level;
+
+    @Criteria.Except
+    private Integer pageNum;
+
+    @Criteria.Except
+    private Integer pageSize;
+
+    @Criteria.NotIn("tag")
+    private List<String> excludedTags;
+
+    private String source;
+
+    public String getCustNameLike() {
+        return custNameLike;
+    }
+
+    public void setCustNameLike(String custNameLike) {
+        this.custNameLike = custNameLike;
+    }
+
+    public String getCustCodeStartsWith() {
+        return custCodeStartsWith;
+    }
+
+    public void setCustCodeStartsWith(String custCodeStartsWith) {
+        this.custCodeStartsWith = custCodeStartsWith;
+    }
+
+    public List<Long> getIdIn() {
+        return idIn;
+    }
+
+    public void setIdIn(List<Long> idIn) {
+        this.idIn = idIn;
+    }
+
+    public List<Integer> getStatusNotIn() {
+        return statusNotIn;
+    }
+
+    public void setStatusNotIn(List<Integer> statusNotIn) {
+        this.statusNotIn = statusNotIn;
+    }
+
+    public Long getOrgId() {
+        return orgId;
+    }
+
+    public void setOrgId(Long orgId) {
+        this.orgId = orgId;
+    }
+
+    public BigDecimal getAmountGreatThan() {
+        return amountGreatThan;
+    }
+
+    public void setAmountGreatThan(BigDecimal amountGreatThan) {
+        this.amountGreatThan = amountGreatThan;
+    }
+
+    public BigDecimal getAmountMax() {
+        return amountMax;
+    }
+
+    public void setAmountMax(BigDecimal amountMax) {
+        this.amountMax = amountMax;
+    }
+
+    public Date getCreateTimeFrom() {
+        return createTimeFrom;
+    }
+
+    public void setCreateTimeFrom(Date createTimeFrom) {
+        this.createTimeFrom = createTimeFrom;
+    }
+
+    public Date getCreateTimeTo() {
+        return createTimeTo;
+    }
+
+    public void setCreateTimeTo(Date createTimeTo) {
+        this.createTimeTo = createTimeTo;
+    }
+
+    public Integer getType() {
+        return type;
+    }
+
+    public void setType(Integer type) {
+        this.type = type;
+    }
+
+    public Boolean getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(Boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public String getRemarkLike() {
+        return remarkLike;
+    }
+
+    public void setRemarkLike(String remarkLike) {
+        this.remarkLike = remarkLike;
+    }
+
+    public String getMailSuffix() {
+        return mailSuffix;
+    }
+
+    public void setMailSuffix(String mailSuffix) {
+        this.mailSuffix = mailSuffix;
+    }
+
+    public List<String> getRegions() {
+        return regions;
+    }
+
+    public void setRegions(List<String> regions) {
+        this.regions = regions;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public void setPhone(String phone) {
+        this.phone = phone;
+    }
+
+    public Integer getLevel() {
+        return level;
+    }
+
+    public void setLevel(Integer level) {
+        this.level = level;
+    }
+
+    public Integer getPageNum() {
+        return pageNum;
+    }
+
+    public void setPageNum(Integer pageNum) {
+        this.pageNum = pageNum;
+    }
+
+    public Integer getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(Integer pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public List<String> getExcludedTags() {
+        return excludedTags;
+    }
+
+    public void setExcludedTags(List<String> excludedTags) {
+        this.excludedTags = excludedTags;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+}
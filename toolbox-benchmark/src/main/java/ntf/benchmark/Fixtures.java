@@ -0,0 +1,264 @@
+package ntf.benchmark;
+
+import com.google.gson.Gson;
+import ntf.mybatis.BinaryJsonListTypeHandler;
+import ntf.mybatis.JsonListCodec;
+import ntf.mybatis.JsonListTypeHandler;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * 基准测试用的数据，固定随机种子保证各版本之间可比
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static CustQuery fullQuery() {
+        CustQuery q = new CustQuery();
+        q.setCustNameLike("张三");
+        q.setCustCodeStartsWith("C1024");
+        q.setIdIn(Arrays.asList(1L, 2L, 3L, 5L, 8L, 13L, 21L, 34L, 55L, 89L));
+        q.setStatusNotIn(Arrays.asList(-1, 0));
+        q.setOrgId(10086L);
+        q.setAmountGreatThan(new BigDecimal("100.00"));
+        q.setAmountMax(new BigDecimal("99999.99"));
+        q.setCreateTimeFrom(new Date(1514736000000L));
+        q.setCreateTimeTo(new Date(1546272000000L));
+        q.setType(2);
+        q.setDeleted(false);
+        q.setRemarkLike("vip");
+        q.setMailSuffix("@example.com");
+        q.setRegions(Arrays.asList("east", "south"));
+        q.setPhone("13800000000");
+        q.setLevel(3);
+        q.setPageNum(1);
+        q.setPageSize(20);
+        q.setExcludedTags(Arrays.asList("blacklist", "test"));
+        q.setSource("web");
+        return q;
+    }
+
+    static CustQuery sparseQuery() {
+        CustQuery q = new CustQuery();
+        q.setCustNameLike("张三");
+        q.setOrgId(10086L);
+        q.setPageNum(1);
+        q.setPageSize(20);
+        return q;
+    }
+
+    static List<Item> items(int size) {
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Item item = new Item();
+            item.setId(i + 1L);
+            item.setCode("ITEM-" + random.nextInt(1_000_000));
+            item.setName("商品" + random.nextInt(10_000));
+            item.setPrice(random.nextInt(100_000) / 100.0);
+            item.setQuantity(random.nextInt(100));
+            item.setTags(Arrays.asList("t" + random.nextInt(10), "t" + random.nextInt(10)));
+            items.add(item);
+        }
+        return items;
+    }
+
+    static String itemsJson(int size) {
+        return new Gson().toJson(items(size));
+    }
+
+    static List<ItemDto> itemDtos(int size) {
+        List<ItemDto> dtos = new ArrayList<>(size);
+        for (Item item : items(size)) {
+            ItemDto dto = new ItemDto();
+            dto.setId(item.getId());
+            dto.setCode(item.getCode());
+            dto.setName(item.getName());
+            dto.setPrice(item.getPrice());
+            dto.setQuantity(item.getQuantity());
+            dto.setTags(item.getTags());
+            dto.setRemark("remark");
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    static final String BENIGN_TEXT = "北京市朝阳区建国路88号 SOHO现代城 A座 1201室, tel: 010-88888888";
+
+    static final String HOSTILE_TEXT = "<script>alert(document.cookie)</script><a href=\"javascript:evil()\">x</a>"
+            + "<iframe src=//evil.com></iframe><img src=x onload=alert(1)>eval(atob('YWxlcnQoMSk='))"
+            + "&lt;script&gt;alert(1)&lt;/script&gt;<style>body{background:url(vbscript:x)}</style>";
+
+    /**
+     * 只实现JsonListTypeHandler用到的读取方法
+     */
+    static ResultSet resultSet(String content) {
+        return (ResultSet) Proxy.newProxyInstance(Fixtures.class.getClassLoader(), new Class[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getString":
+                            return content;
+                        case "getCharacterStream":
+                            return content == null ? null : new StringReader(content);
+                        case "wasNull":
+                            return content == null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * 丢弃所有参数的PreparedStatement，Reader参数会被读完，模拟驱动发送数据
+     */
+    static PreparedStatement preparedStatement() {
+        return (PreparedStatement) Proxy.newProxyInstance(Fixtures.class.getClassLoader(),
+                new Class[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    if (args != null)
+                        for (Object arg : args)
+                            if (arg instanceof Reader)
+                                drain((Reader) arg);
+                    return null;
+                });
+    }
+
+    /**
+     * 返回BLOB内容的ResultSet
+     */
+    static ResultSet binaryResultSet(byte[] content) {
+        return (ResultSet) Proxy.newProxyInstance(Fixtures.class.getClassLoader(), new Class[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getBytes":
+                            return content;
+                        case "wasNull":
+                            return content == null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * 通过handler写入得到的BLOB内容
+     */
+    static byte[] itemsBinary(BinaryItemListTypeHandler handler, int size) throws SQLException {
+        byte[][] bound = new byte[1][];
+        PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(Fixtures.class.getClassLoader(),
+                new Class[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("setBytes"))
+                        bound[0] = (byte[]) args[1];
+                    return null;
+                });
+        handler.setNonNullParameter(ps, 1, items(size), null);
+        return bound[0];
+    }
+
+    private static void drain(Reader reader) throws IOException {
+        char[] buf = new char[8192];
+        while (reader.read(buf) != -1) {
+        }
+    }
+
+    public static class Item {
+
+        private Long id;
+        private String code;
+        private String name;
+        private Double price;
+        private Integer quantity;
+        private List<String> tags;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Double getPrice() {
+            return price;
+        }
+
+        public void setPrice(Double price) {
+            this.price = price;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+    }
+
+    public static class ItemDto extends Item {
+
+        private String remark;
+
+        public String getRemark() {
+            return remark;
+        }
+
+        public void setRemark(String remark) {
+            this.remark = remark;
+        }
+    }
+
+    public static class ItemListTypeHandler extends JsonListTypeHandler<Item> {
+
+        public ItemListTypeHandler() {
+        }
+
+        public ItemListTypeHandler(boolean streaming) {
+            this.streaming = streaming;
+        }
+
+        public ItemListTypeHandler(JsonListCodec codec) {
+            this.codec = codec;
+        }
+    }
+
+    public static class BinaryItemListTypeHandler extends BinaryJsonListTypeHandler<Item> {
+
+        public BinaryItemListTypeHandler(boolean compress) {
+            this.compressThreshold = compress ? 512 : -1;
+        }
+    }
+}
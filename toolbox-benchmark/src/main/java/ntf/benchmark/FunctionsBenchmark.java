@@ -0,0 +1,52 @@
+package ntf.benchmark;
+
+import ntf.function.Functions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 逐步生成Pair的 compute2By1 / reduce2By1 与合并后的 computeReduce / computeIntReduce 对比
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FunctionsBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int size;
+
+    private List<Fixtures.ItemDto> dtos;
+
+    @Setup
+    public void setup() {
+        dtos = Fixtures.itemDtos(size);
+    }
+
+    @Benchmark
+    public List<Fixtures.ItemDto> pairs() {
+        return dtos.stream()
+                .map(Functions.compute2By1(Fixtures.ItemDto::getQuantity))
+                .map(Functions.reduce2By1((d, q) -> d.setPrice(q * 1.5)))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Fixtures.ItemDto> computeReduce() {
+        return dtos.stream()
+                .map(Functions.computeReduce(Fixtures.ItemDto::getQuantity, (d, q) -> d.setPrice(q * 1.5)))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Fixtures.ItemDto> computeIntReduce() {
+        return dtos.stream()
+                .map(Functions.computeIntReduce(Fixtures.ItemDto::getQuantity, (d, q) -> d.setPrice(q * 1.5)))
+                .collect(Collectors.toList());
+    }
+}
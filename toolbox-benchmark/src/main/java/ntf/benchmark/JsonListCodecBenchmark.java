@@ -0,0 +1,53 @@
+package ntf.benchmark;
+
+import ntf.mybatis.JsonListCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不同JsonListCodec的读写，DEFAULT为不指定codec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonListCodecBenchmark {
+
+    @Param({"10", "1000"})
+    private int size;
+
+    @Param({"DEFAULT", "GSON", "FASTJSON", "STREAMING"})
+    private String codec;
+
+    private Fixtures.ItemListTypeHandler handler;
+    private ResultSet resultSet;
+    private PreparedStatement preparedStatement;
+    private List<Fixtures.Item> items;
+
+    @Setup
+    public void setup() throws Exception {
+        handler = "DEFAULT".equals(codec) ? new Fixtures.ItemListTypeHandler()
+                : new Fixtures.ItemListTypeHandler((JsonListCodec) JsonListCodec.class.getField(codec).get(null));
+        resultSet = Fixtures.resultSet(Fixtures.itemsJson(size));
+        preparedStatement = Fixtures.preparedStatement();
+        items = Fixtures.items(size);
+    }
+
+    @Benchmark
+    public List<Fixtures.Item> read() throws SQLException {
+        return handler.getNullableResult(resultSet, "items");
+    }
+
+    @Benchmark
+    public PreparedStatement write() throws SQLException {
+        handler.setNonNullParameter(preparedStatement, 1, items, null);
+        return preparedStatement;
+    }
+}
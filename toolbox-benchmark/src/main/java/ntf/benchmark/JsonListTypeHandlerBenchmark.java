@@ -0,0 +1,56 @@
+package ntf.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonListTypeHandler 读写，size为列表元素个数，streaming为是否使用流式读写
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonListTypeHandlerBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    @Param({"false", "true"})
+    private boolean streaming;
+
+    private Fixtures.ItemListTypeHandler handler;
+    private ResultSet resultSet;
+    private PreparedStatement preparedStatement;
+    private List<Fixtures.Item> items;
+
+    @Setup
+    public void setup() {
+        handler = new Fixtures.ItemListTypeHandler(streaming);
+        resultSet = Fixtures.resultSet(Fixtures.itemsJson(size));
+        preparedStatement = Fixtures.preparedStatement();
+        items = Fixtures.items(size);
+    }
+
+    @Benchmark
+    public List<Fixtures.Item> read() throws SQLException {
+        return handler.getNullableResult(resultSet, "items");
+    }
+
+    @Benchmark
+    public PreparedStatement write() throws SQLException {
+        handler.setNonNullParameter(preparedStatement, 1, items, null);
+        return preparedStatement;
+    }
+
+    @Benchmark
+    public Fixtures.ItemListTypeHandler createHandler() {
+        return new Fixtures.ItemListTypeHandler();
+    }
+}
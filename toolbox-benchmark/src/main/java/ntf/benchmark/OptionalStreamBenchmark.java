@@ -0,0 +1,89 @@
+package ntf.benchmark;
+
+import ntf.core.OptionalStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * OptionalStream 与直接使用Stream的对比
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptionalStreamBenchmark {
+
+    @Param({"10", "10000"})
+    private int size;
+
+    private List<Fixtures.Item> items;
+
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        items = Fixtures.items(size);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Optional<List<Long>> optionalStream() {
+        return OptionalStream.ofNullable(items)
+                .filter(i -> i.getQuantity() > 10)
+                .map(Fixtures.Item::getId)
+                .optionalList(ArrayList::new);
+    }
+
+    @Benchmark
+    public Optional<List<Long>> optionalStreamParallel() {
+        return OptionalStream.ofNullable(items)
+                .parallel(pool)
+                .filter(i -> i.getQuantity() > 10)
+                .map(Fixtures.Item::getId)
+                .optionalList(ArrayList::new);
+    }
+
+    @Benchmark
+    public long optionalStreamSumBoxed() {
+        return OptionalStream.ofNullable(items)
+                .map(Fixtures.Item::getId)
+                .get()
+                .reduce(0L, Long::sum);
+    }
+
+    @Benchmark
+    public long optionalStreamSumPrimitive() {
+        return OptionalStream.ofNullable(items)
+                .mapToLong(Fixtures.Item::getId)
+                .sum();
+    }
+
+    @Benchmark
+    public List<Long> plainStream() {
+        return items.stream()
+                .filter(i -> i.getQuantity() > 10)
+                .map(Fixtures.Item::getId)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Benchmark
+    public Optional<List<Long>> optionalStreamEmpty() {
+        return OptionalStream.<Fixtures.Item>ofNullable((List<Fixtures.Item>) null)
+                .filter(i -> i.getQuantity() > 10)
+                .map(Fixtures.Item::getId)
+                .optionalList(ArrayList::new);
+    }
+}
@@ -0,0 +1,59 @@
+package ntf.benchmark;
+
+import ntf.mybatis.Query2Criteria;
+import ntf.mybatis.QueryFingerprint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query -> Criteria：运行时转换 vs 编译期生成的转换类
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Query2CriteriaBenchmark {
+
+    private Query2Criteria<CustQuery, CustExample.Criteria> q2c;
+    private CustQuery full;
+    private CustQuery sparse;
+
+    @Setup
+    public void setup() {
+        q2c = new Query2Criteria<>(CustQuery.class, CustExample.Criteria.class);
+        full = Fixtures.fullQuery();
+        sparse = Fixtures.sparseQuery();
+    }
+
+    @Benchmark
+    public CustExample.Criteria runtimeFull() {
+        CustExample.Criteria criteria = new CustExample().or();
+        q2c.convert(full, criteria);
+        return criteria;
+    }
+
+    @Benchmark
+    public CustExample.Criteria runtimeSparse() {
+        CustExample.Criteria criteria = new CustExample().or();
+        q2c.convert(sparse, criteria);
+        return criteria;
+    }
+
+    @Benchmark
+    public CustExample.Criteria generatedFull() {
+        return CustQuery2Criteria.convert(full, new CustExample().or());
+    }
+
+    @Benchmark
+    public CustExample.Criteria generatedSparse() {
+        return CustQuery2Criteria.convert(sparse, new CustExample().or());
+    }
+
+    @Benchmark
+    public QueryFingerprint fingerprintFull() {
+        return q2c.fingerprint(full);
+    }
+}
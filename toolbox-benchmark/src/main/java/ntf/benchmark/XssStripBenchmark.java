@@ -0,0 +1,33 @@
+package ntf.benchmark;
+
+import ntf.spring.mvc.XssStripStringEditor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XssStripStringEditor.stripXSS：正常文本与带攻击代码的文本
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XssStripBenchmark {
+
+    @Param({"benign", "hostile"})
+    private String input;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        text = "benign".equals(input) ? Fixtures.BENIGN_TEXT : Fixtures.HOSTILE_TEXT;
+    }
+
+    @Benchmark
+    public String stripXSS() {
+        return XssStripStringEditor.stripXSS(text);
+    }
+}
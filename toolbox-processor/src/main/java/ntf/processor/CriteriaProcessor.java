@@ -0,0 +1,392 @@
+package ntf.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.*;
+
+/**
+ * 根据 @CriteriaConverter 生成 Query -> Criteria 的转换类
+ * 解析规则与运行时的 Query2Criteria 保持一致：
+ *  1. 只处理Query类自身声明、且有getter的属性
+ *  2. 没有@Criteria系列注解的属性默认为EqualTo，@Criteria.Except 的属性跳过
+ *  3. 方法名 = "and" + (注解value 或 属性名，去掉注解名后缀) + 方法后缀（StartsWith/EndsWith 为Like）
+ *  4. JsonContains/JsonOverlaps/MemberOf 通过 JsonConditions 调用 addCriterion(String)，未指定column时列名由 JsonConditions.column 计算
+ *  5. IN/NOT IN 的去重、NOT IN 的batchSize拆分、空NOT IN忽略、空IN写入恒假条件与运行时一致；
+ *     IN 的拆分查询只能通过 Query2Criteria.select 使用
+ * 找不到对应的Criteria方法或参数类型不匹配时直接编译报错
+ */
+public class CriteriaProcessor extends AbstractProcessor {
+
+    static final String CONVERTER_ANNOTATION = "ntf.annotation.CriteriaConverter";
+    static final String CRITERIA_ANNOTATION = "ntf.annotation.Criteria";
+    static final String GENERATED_SUFFIX = "2Criteria";
+
+    // json条件注解 -> JsonConditions中的方法
+    private static final Map<String, String> JSON_CONDITIONS = new HashMap<>();
+
+    static {
+        JSON_CONDITIONS.put("JsonContains", "contains");
+        JSON_CONDITIONS.put("JsonOverlaps", "overlaps");
+        JSON_CONDITIONS.put("MemberOf", "memberOf");
+    }
+
+    private Types types;
+    private Elements elements;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(CONVERTER_ANNOTATION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        types = processingEnv.getTypeUtils();
+        elements = processingEnv.getElementUtils();
+        TypeElement converterAnno = elements.getTypeElement(CONVERTER_ANNOTATION);
+        if (converterAnno == null)
+            return false;
+        for (TypeElement query : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(converterAnno))) {
+            TypeElement criteria = criteriaTypeOf(query);
+            if (criteria == null) {
+                error(query, "@CriteriaConverter必须指定Criteria类");
+                continue;
+            }
+            if (!query.getTypeParameters().isEmpty()) {
+                error(query, "@CriteriaConverter不支持泛型Query类");
+                continue;
+            }
+            List<Step> steps = new ArrayList<>();
+            boolean ok = true;
+            for (VariableElement field : ElementFilter.fieldsIn(query.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC))
+                    continue;
+                try {
+                    Step step = stepOf(query, criteria, field);
+                    if (step != null)
+                        steps.add(step);
+                } catch (IllegalStateException e) {
+                    error(field, e.getMessage());
+                    ok = false;
+                }
+            }
+            if (ok)
+                write(query, criteria, steps);
+        }
+        return true;
+    }
+
+    private TypeElement criteriaTypeOf(TypeElement query) {
+        for (AnnotationMirror am : query.getAnnotationMirrors()) {
+            if (!qualifiedName(am).equals(CONVERTER_ANNOTATION))
+                continue;
+            AnnotationValue value = attribute(am, "value");
+            if (value != null && value.getValue() instanceof DeclaredType)
+                return (TypeElement) ((DeclaredType) value.getValue()).asElement();
+        }
+        return null;
+    }
+
+    private Step stepOf(TypeElement query, TypeElement criteria, VariableElement field) {
+        String propertyName = field.getSimpleName().toString();
+        ExecutableElement getter = getterOf(query, field);
+        if (getter == null) // 运行时同样跳过没有getter的属性
+            return null;
+
+        String op = null;
+        AnnotationMirror opAnno = null;
+        String alias = "";
+        boolean criteriaPresent = false;
+        for (AnnotationMirror am : field.getAnnotationMirrors()) {
+            String name = qualifiedName(am);
+            if (name.equals(CRITERIA_ANNOTATION)) {
+                criteriaPresent = true;
+                alias = stringAttribute(am, "value");
+            } else if (name.startsWith(CRITERIA_ANNOTATION + ".")) {
+                criteriaPresent = true;
+                if (op == null) {
+                    op = name.substring(CRITERIA_ANNOTATION.length() + 1);
+                    opAnno = am;
+                    alias = stringAttribute(am, "value");
+                }
+            }
+        }
+        if (!criteriaPresent)
+            op = "EqualTo"; // 默认为相等
+        if (op == null || op.equals("Except"))
+            return null;
+
+        // StartsWith/EndsWith 对应的是Like方法
+        boolean like = op.equals("Like") || op.equals("StartsWith") || op.equals("EndsWith");
+        String methodName = "and" + capitalize(alias.trim().isEmpty() ? propertyName : alias);
+        if (methodName.endsWith(op))
+            methodName = methodName.substring(0, methodName.length() - op.length());
+        methodName += like ? "Like" : op;
+
+        TypeMirror valueType = getter.getReturnType();
+        boolean primitive = valueType.getKind().isPrimitive();
+        if (JSON_CONDITIONS.containsKey(op)) {
+            // json条件没有对应的andXxx方法，通过 addCriterion(String) 添加
+            if (!hasAddCriterion(criteria))
+                throw new IllegalStateException("未找到query 2 criteria的方法：" + criteria.getQualifiedName() + ".addCriterion(String)");
+            Step step = new Step(getter.getSimpleName().toString(), valueType.toString(), primitive, null);
+            String column = stringAttribute(opAnno, "column");
+            if (column.trim().isEmpty()) {
+                // 未指定column时由运行时的 JsonConditions.column 计算，类加载时算一次
+                String property = methodName.substring("and".length(), methodName.length() - op.length());
+                step.constant = "COLUMN_" + propertyName;
+                step.constantValue = "ntf.mybatis.JsonConditions.column("
+                        + stringLiteral(Character.toLowerCase(property.charAt(0)) + property.substring(1)) + ")";
+                column = step.constant;
+            } else {
+                column = stringLiteral(column);
+            }
+            step.statement = "ntf.mybatis.JsonConditions.addCriterion(criteria, ntf.mybatis.JsonConditions."
+                    + JSON_CONDITIONS.get(op) + "(" + column + ", v))";
+            return step;
+        }
+        TypeMirror argType = primitive ? types.boxedClass((javax.lang.model.type.PrimitiveType) valueType).asType() : valueType;
+        if (like)
+            argType = elements.getTypeElement(String.class.getName()).asType();
+        // 与运行时一致：IN/NOT IN 默认去重，去重后的参数为ArrayList
+        TypeMirror collection = types.erasure(elements.getTypeElement(Collection.class.getName()).asType());
+        boolean distinct = (op.equals("In") || op.equals("NotIn"))
+                && types.isAssignable(types.erasure(valueType), collection)
+                && !"false".equals(stringAttribute(opAnno, "distinct"));
+        if (distinct)
+            argType = types.erasure(elements.getTypeElement(ArrayList.class.getName()).asType());
+
+        ExecutableElement method = null;
+        boolean nameFound = false;
+        for (ExecutableElement m : ElementFilter.methodsIn(elements.getAllMembers(criteria))) {
+            if (!m.getSimpleName().contentEquals(methodName) || !m.getModifiers().contains(Modifier.PUBLIC))
+                continue;
+            nameFound = true;
+            TypeMirror paramType = m.getParameters().size() == 1 ? m.getParameters().get(0).asType() : null;
+            if (paramType != null && types.isAssignable(argType, distinct ? types.erasure(paramType) : paramType)) {
+                method = m;
+                break;
+            }
+        }
+        if (method == null) {
+            throw new IllegalStateException(nameFound
+                    ? "Criteria方法参数类型不匹配：" + criteria.getQualifiedName() + "." + methodName + "(" + argType + ")"
+                    : "未找到query 2 criteria的方法：" + criteria.getQualifiedName() + "." + methodName);
+        }
+        Step step = new Step(getter.getSimpleName().toString(), valueType.toString(), primitive, methodName);
+        step.distinct = distinct;
+        if (like) {
+            boolean escape = "true".equals(stringAttribute(opAnno, "escape"));
+            if (op.equals("StartsWith") || "true".equals(stringAttribute(opAnno, "indexed")))
+                step.arg = "ntf.mybatis.Likes.startsWith(v, " + escape + ")";
+            else if (op.equals("EndsWith"))
+                step.arg = "ntf.mybatis.Likes.endsWith(v, " + escape + ")";
+            else
+                step.arg = escape ? "ntf.mybatis.Likes.contains(v, true)" : "\"%\" + v + \"%\"";
+        }
+        boolean isCollection = types.isAssignable(types.erasure(valueType), collection);
+        // 与运行时一致：空NOT IN忽略，空IN写入恒假条件
+        if (op.equals("NotIn") && isCollection)
+            step.skipEmpty = true;
+        if (op.equals("In") && isCollection && hasAddCriterion(criteria))
+            step.emptyStatement = "ntf.mybatis.JsonConditions.addCriterion(criteria, \"1 = 0\")";
+        if (op.equals("NotIn") && isCollection) {
+            // NOT IN 超过batchSize拆成多个AND连接的NOT IN
+            TypeMirror list = types.erasure(elements.getTypeElement(List.class.getName()).asType());
+            TypeMirror paramType = method.getParameters().get(0).asType();
+            if (types.isSameType(types.erasure(paramType), list)) {
+                String batchSize = stringAttribute(opAnno, "batchSize");
+                step.batchSize = batchSize.isEmpty() ? 0 : Integer.parseInt(batchSize);
+                step.paramType = paramType.toString();
+            }
+        }
+        return step;
+    }
+
+    private boolean hasAddCriterion(TypeElement criteria) {
+        TypeMirror string = elements.getTypeElement(String.class.getName()).asType();
+        for (ExecutableElement m : ElementFilter.methodsIn(elements.getAllMembers(criteria))) {
+            if (m.getSimpleName().contentEquals("addCriterion") && m.getParameters().size() == 1
+                    && types.isSameType(m.getParameters().get(0).asType(), string))
+                return true;
+        }
+        return false;
+    }
+
+    private ExecutableElement getterOf(TypeElement query, VariableElement field) {
+        String cap = capitalize(field.getSimpleName().toString());
+        boolean bool = field.asType().getKind() == TypeKind.BOOLEAN;
+        for (ExecutableElement m : ElementFilter.methodsIn(elements.getAllMembers(query))) {
+            if (!m.getModifiers().contains(Modifier.PUBLIC) || m.getModifiers().contains(Modifier.STATIC)
+                    || !m.getParameters().isEmpty() || m.getReturnType().getKind() == TypeKind.VOID)
+                continue;
+            String name = m.getSimpleName().toString();
+            if (name.equals("get" + cap) || (bool && name.equals("is" + cap)))
+                return m;
+        }
+        return null;
+    }
+
+    private void write(TypeElement query, TypeElement criteria, List<Step> steps) {
+        String pkg = elements.getPackageOf(query).getQualifiedName().toString();
+        String simpleName = flatName(query) + GENERATED_SUFFIX;
+        String queryName = query.getQualifiedName().toString();
+        String criteriaName = criteria.getQualifiedName().toString();
+        try {
+            JavaFileObject file = processingEnv.getFiler()
+                    .createSourceFile(pkg.isEmpty() ? simpleName : pkg + "." + simpleName, query);
+            try (PrintWriter out = new PrintWriter(file.openWriter())) {
+                if (!pkg.isEmpty()) {
+                    out.println("package " + pkg + ";");
+                    out.println();
+                }
+                out.println("/**");
+                out.println(" * 由 " + getClass().getName() + " 根据 " + queryName + " 生成，请勿修改");
+                out.println(" */");
+                out.println("public final class " + simpleName
+                        + " implements java.util.function.BiConsumer<" + queryName + ", " + criteriaName + "> {");
+                out.println();
+                out.println("    public static final " + simpleName + " INSTANCE = new " + simpleName + "();");
+                out.println();
+                for (Step step : steps) {
+                    if (step.constant != null)
+                        out.println("    private static final String " + step.constant + " = " + step.constantValue + ";");
+                }
+                if (steps.stream().anyMatch(step -> step.constant != null))
+                    out.println();
+                out.println("    private " + simpleName + "() {");
+                out.println("    }");
+                out.println();
+                out.println("    public static " + criteriaName + " convert(" + queryName + " q, " + criteriaName + " criteria) {");
+                for (Step step : steps)
+                    step.write(out);
+                out.println("        return criteria;");
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public void accept(" + queryName + " q, " + criteriaName + " criteria) {");
+                out.println("        convert(q, criteria);");
+                out.println("    }");
+                out.println("}");
+            }
+        } catch (IOException e) {
+            error(query, "生成" + simpleName + "失败：" + e.getMessage());
+        }
+    }
+
+    private static String flatName(TypeElement type) {
+        String name = type.getSimpleName().toString();
+        for (Element e = type.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement())
+            name = e.getSimpleName() + "_" + name;
+        return name;
+    }
+
+    private static String qualifiedName(AnnotationMirror am) {
+        return ((TypeElement) am.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private static AnnotationValue attribute(AnnotationMirror am, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : am.getElementValues().entrySet()) {
+            if (e.getKey().getSimpleName().contentEquals(name))
+                return e.getValue();
+        }
+        return null;
+    }
+
+    private static String stringAttribute(AnnotationMirror am, String name) {
+        AnnotationValue value = attribute(am, name);
+        return value == null ? "" : String.valueOf(value.getValue());
+    }
+
+    private static String stringLiteral(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String capitalize(String s) {
+        return s.isEmpty() ? s : Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    private void error(Element e, String msg) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, msg, e);
+    }
+
+    /**
+     * 单个属性生成的代码
+     */
+    private static final class Step {
+
+        private final String getter;
+        private final String valueType;
+        private final boolean primitive;
+        private final String method;
+        // 传给criteria方法的参数表达式
+        private String arg = "v";
+        // IN/NOT IN 是否去重
+        private boolean distinct;
+        // NOT IN 单次的最大元素个数
+        private int batchSize;
+        private String paramType;
+        // 不调用criteria方法时完整的语句
+        private String statement;
+        // 集合为空时跳过
+        private boolean skipEmpty;
+        // 集合为空时执行的语句
+        private String emptyStatement;
+        // 需要生成的静态常量名及其初始化表达式
+        private String constant;
+        private String constantValue;
+
+        private Step(String getter, String valueType, boolean primitive, String method) {
+            this.getter = getter;
+            this.valueType = valueType;
+            this.primitive = primitive;
+            this.method = method;
+        }
+
+        private void write(PrintWriter out) {
+            String arg = this.arg;
+            if (distinct)
+                arg = "new java.util.ArrayList<>(new java.util.LinkedHashSet<>(v))";
+            String call = statement != null ? statement : "criteria." + method + "(" + arg + ")";
+            out.println("        {");
+            out.println("            " + valueType + " v = q." + getter + "();");
+            if (batchSize > 0) {
+                out.println("            if (v != null && !v.isEmpty()) {");
+                out.println("                " + paramType + " l = " + (distinct ? arg : "new java.util.ArrayList<>(v)") + ";");
+                out.println("                for (int i = 0; i < l.size(); i += " + batchSize + ")");
+                out.println("                    criteria." + method + "(l.subList(i, Math.min(l.size(), i + " + batchSize + ")));");
+                out.println("            }");
+            } else if (primitive) {
+                out.println("            " + call + ";");
+            } else if (skipEmpty) {
+                out.println("            if (v != null && !v.isEmpty())");
+                out.println("                " + call + ";");
+            } else if (emptyStatement != null) {
+                out.println("            if (v != null && v.isEmpty())");
+                out.println("                " + emptyStatement + ";");
+                out.println("            else if (v != null)");
+                out.println("                " + call + ";");
+            } else {
+                out.println("            if (v != null)");
+                out.println("                " + call + ";");
+            }
+            out.println("        }");
+        }
+    }
+}
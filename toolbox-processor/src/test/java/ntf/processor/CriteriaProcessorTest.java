@@ -0,0 +1,159 @@
+package ntf.processor;
+
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CriteriaProcessorTest {
+
+    // 测试中只用到注解的名字和属性，不依赖toolbox本身
+    private static final String CONVERTER = "package ntf.annotation;\n"
+            + "public @interface CriteriaConverter { Class<?> value(); }";
+
+    private static final String CRITERIA = "package ntf.annotation;\n"
+            + "public @interface Criteria {\n"
+            + "    String value() default \"\";\n"
+            + "    @interface GreatThan { String value() default \"\"; }\n"
+            + "    @interface JsonContains { String value() default \"\"; String column() default \"\"; }\n"
+            + "}";
+
+    // 列名规则由运行时提供，这里故意与驼峰转下划线不同，以确认生成代码调用的是它
+    private static final String JSON_CONDITIONS = "package ntf.mybatis;\n"
+            + "public class JsonConditions {\n"
+            + "    public static String column(String property) { return \"col:\" + property; }\n"
+            + "    public static String contains(String column, Object v) { return column + \" @> \" + v; }\n"
+            + "    public static void addCriterion(Object criteria, String condition) {\n"
+            + "        ((demo.CustCriteria) criteria).addCriterion(condition);\n"
+            + "    }\n"
+            + "}";
+
+    private static final String CUST_CRITERIA = "package demo;\n"
+            + "public class CustCriteria {\n"
+            + "    public final java.util.List<String> conditions = new java.util.ArrayList<>();\n"
+            + "    public void addCriterion(String condition) { conditions.add(condition); }\n"
+            + "    public CustCriteria andNameEqualTo(String v) { conditions.add(\"name = \" + v); return this; }\n"
+            + "    public CustCriteria andAgeGreatThan(Integer v) { conditions.add(\"age > \" + v); return this; }\n"
+            + "}";
+
+    private static String query(String fields) {
+        return "package demo;\n"
+                + "import ntf.annotation.Criteria;\n"
+                + "@ntf.annotation.CriteriaConverter(CustCriteria.class)\n"
+                + "public class CustQuery {\n"
+                + fields
+                + "}";
+    }
+
+    @Test
+    public void generatesConverter() throws Exception {
+        Result result = compile(query(""
+                + "    private String name;\n"
+                + "    @Criteria.GreatThan private int age;\n"
+                + "    @Criteria.JsonContains private String custTags;\n"
+                + "    @Criteria.JsonContains(column = \"labels\") private String tags;\n"
+                + "    public String getName() { return name; }\n"
+                + "    public int getAge() { return age; }\n"
+                + "    public String getCustTags() { return custTags; }\n"
+                + "    public String getTags() { return tags; }\n"));
+        assertTrue(result.errors.toString(), result.errors.isEmpty());
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{result.out.toURI().toURL()})) {
+            Class<?> queryClass = loader.loadClass("demo.CustQuery");
+            Object q = queryClass.getDeclaredConstructor().newInstance();
+            set(q, "name", "a");
+            set(q, "age", 3);
+            set(q, "custTags", "x");
+            set(q, "tags", "y");
+            Object criteria = loader.loadClass("demo.CustCriteria").getDeclaredConstructor().newInstance();
+            loader.loadClass("demo.CustQuery2Criteria").getMethod("convert", queryClass, criteria.getClass())
+                    .invoke(null, q, criteria);
+
+            assertEquals(Arrays.asList("name = a", "age > 3", "col:custTags @> x", "labels @> y"),
+                    criteria.getClass().getField("conditions").get(criteria));
+        }
+    }
+
+    @Test
+    public void missingMethodIsCompileError() throws Exception {
+        Result result = compile(query(""
+                + "    private String email;\n"
+                + "    public String getEmail() { return email; }\n"));
+        assertEquals(1, result.errors.size());
+        assertTrue(result.errors.get(0), result.errors.get(0).contains("未找到query 2 criteria的方法：demo.CustCriteria.andEmailEqualTo"));
+    }
+
+    @Test
+    public void wrongTypeIsCompileError() throws Exception {
+        Result result = compile(query(""
+                + "    private Long name;\n"
+                + "    public Long getName() { return name; }\n"));
+        assertEquals(1, result.errors.size());
+        assertTrue(result.errors.get(0), result.errors.get(0).contains("Criteria方法参数类型不匹配：demo.CustCriteria.andNameEqualTo(java.lang.Long)"));
+    }
+
+    private static void set(Object target, String field, Object value) throws Exception {
+        java.lang.reflect.Field f = target.getClass().getDeclaredField(field);
+        f.setAccessible(true);
+        f.set(target, value);
+    }
+
+    private static Result compile(String query) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        File out = Files.createTempDirectory("criteria-processor").toFile();
+        List<JavaFileObject> sources = Arrays.asList(
+                source("ntf.annotation.CriteriaConverter", CONVERTER),
+                source("ntf.annotation.Criteria", CRITERIA),
+                source("ntf.mybatis.JsonConditions", JSON_CONDITIONS),
+                source("demo.CustCriteria", CUST_CRITERIA),
+                source("demo.CustQuery", query));
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                Arrays.asList("-d", out.getPath(), "-s", out.getPath(), "-encoding", "UTF-8"), null, sources);
+        task.setProcessors(Collections.singletonList(new CriteriaProcessor()));
+        task.call();
+
+        Result result = new Result(out);
+        for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+            if (d.getKind() == Diagnostic.Kind.ERROR)
+                result.errors.add(d.getMessage(null));
+        }
+        return result;
+    }
+
+    private static JavaFileObject source(String className, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    private static final class Result {
+
+        private final File out;
+        private final List<String> errors = new ArrayList<>();
+
+        private Result(File out) {
+            this.out = out;
+        }
+    }
+}